@@ -0,0 +1,76 @@
+package com.yushan.analytics_service.benchmark;
+
+import com.yushan.analytics_service.dto.AnalyticsRequestDTO;
+import com.yushan.analytics_service.dto.AnalyticsTrendResponseDTO;
+import com.yushan.analytics_service.repository.AnalyticsRepository;
+import com.yushan.analytics_service.service.AnalyticsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Growth rate, average growth and peak computation of AnalyticsService.getUserTrends over
+ * trend series of increasing length, with the repository returning a prepared series.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrowthRateBenchmark {
+
+    @Param({"30", "365"})
+    public int points;
+
+    private AnalyticsService analyticsService;
+    private AnalyticsRequestDTO request;
+
+    @Setup
+    public void setUp() {
+        long day = TimeUnit.DAYS.toMillis(1);
+        long start = System.currentTimeMillis() - points * day;
+        List<AnalyticsTrendResponseDTO.TrendDataPoint> series = new ArrayList<>(points);
+        for (int i = 0; i < points; i++) {
+            // Includes zero days to exercise the division guard
+            long count = i % 10 == 0 ? 0 : 500 + (i * 37) % 300;
+            series.add(new AnalyticsTrendResponseDTO.TrendDataPoint(new Date(start + i * day), "day " + i, count, null));
+        }
+
+        AnalyticsRepository repository = (AnalyticsRepository) Proxy.newProxyInstance(
+                AnalyticsRepository.class.getClassLoader(), new Class<?>[]{AnalyticsRepository.class},
+                (proxy, method, args) -> {
+                    if ("getUserActivityTrends".equals(method.getName())) {
+                        return series;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        analyticsService = new AnalyticsService();
+        ReflectionTestUtils.setField(analyticsService, "analyticsRepository", repository);
+
+        request = new AnalyticsRequestDTO();
+        request.setStartDate(new Date(start));
+        request.setEndDate(new Date());
+        request.setPeriod("daily");
+    }
+
+    @Benchmark
+    public AnalyticsTrendResponseDTO userTrends() {
+        return analyticsService.getUserTrends(request);
+    }
+}
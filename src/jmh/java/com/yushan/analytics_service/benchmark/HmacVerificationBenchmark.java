@@ -0,0 +1,85 @@
+package com.yushan.analytics_service.benchmark;
+
+import com.yushan.analytics_service.util.HmacUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of verifying the gateway signature headers on one request.
+ * {@code legacy} is the previous implementation (new Mac per call, String.format, Base64 string
+ * compare) kept as the baseline; run with {@code -prof gc} to compare allocations per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HmacVerificationBenchmark {
+
+    private static final String SECRET = "yushan-gateway-hmac-secret-key-for-request-signature-2024";
+    private static final String USER_ID = "4f9c2a1e-7d3b-4c8e-9a6f-1b2c3d4e5f60";
+    private static final String EMAIL = "reader@example.com";
+    private static final String ROLE = "USER";
+
+    private HmacUtil.Verifier uncached;
+    private HmacUtil.Verifier cached;
+    private long timestamp;
+    private String signature;
+
+    @Setup
+    public void setUp() throws Exception {
+        uncached = new HmacUtil.Verifier(SECRET, 0);
+        cached = new HmacUtil.Verifier(SECRET, 10_000);
+        // Leave room for long runs inside the 5 minute tolerance
+        timestamp = System.currentTimeMillis() + 4 * 60 * 1000;
+        signature = legacySignature(USER_ID, EMAIL, ROLE, timestamp);
+    }
+
+    @Benchmark
+    public boolean legacy() throws Exception {
+        if (Math.abs(System.currentTimeMillis() - timestamp) > 5 * 60 * 1000) {
+            return false;
+        }
+        String expected = legacySignature(USER_ID, EMAIL, ROLE, timestamp);
+        if (expected.length() != signature.length()) {
+            return false;
+        }
+        int result = 0;
+        for (int i = 0; i < expected.length(); i++) {
+            result |= expected.charAt(i) ^ signature.charAt(i);
+        }
+        return result == 0;
+    }
+
+    @Benchmark
+    public boolean pooledMac() {
+        return uncached.verify(USER_ID, EMAIL, ROLE, timestamp, signature);
+    }
+
+    @Benchmark
+    public boolean cachedSignature() {
+        return cached.verify(USER_ID, EMAIL, ROLE, timestamp, signature);
+    }
+
+    private static String legacySignature(String userId, String email, String role, long timestamp) throws Exception {
+        String message = String.format("%s|%s|%s|%d", userId, email, role, timestamp);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getEncoder().encodeToString(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,100 @@
+package com.yushan.analytics_service.benchmark;
+
+import com.yushan.analytics_service.security.JwtAuthenticationFilter;
+import com.yushan.analytics_service.util.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication.
+ * {@code filter} runs JwtAuthenticationFilter with a token already in the claims cache,
+ * {@code parseOnce} verifies the token once, and {@code accessorPerClaim} repeats the seven
+ * parses the filter made before it read the claims once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyForJwtValidationThatIsLongEnough1234567890";
+
+    private final FilterChain chain = (request, response) -> { };
+
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "issuer", "benchmark");
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 10_000L);
+        jwtUtil.init();
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+
+        token = Jwts.builder()
+                .claim("userId", UUID.randomUUID().toString())
+                .claim("email", "reader@example.com")
+                .claim("username", "reader")
+                .claim("role", "USER")
+                .claim("status", 0)
+                .claim("tokenType", "access")
+                .issuer("benchmark")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        request = new MockHttpServletRequest("GET", "/api/v1/analytics/summary");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication filter() throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Object parseOnce() {
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public Object accessorPerClaim() {
+        if (!jwtUtil.validateToken(token) || !jwtUtil.isAccessToken(token)) {
+            return null;
+        }
+        return new Object[]{jwtUtil.extractUserId(token), jwtUtil.extractEmail(token), jwtUtil.extractUsername(token),
+                jwtUtil.extractRole(token), jwtUtil.extractStatus(token)};
+    }
+}
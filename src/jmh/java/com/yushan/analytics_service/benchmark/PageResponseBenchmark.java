@@ -0,0 +1,56 @@
+package com.yushan.analytics_service.benchmark;
+
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.dto.PageResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the defensive copies in PageResponseDTO: building a page and reading its content back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageResponseBenchmark {
+
+    @Param({"20", "100"})
+    public int size;
+
+    private List<NovelDetailResponseDTO> content;
+    private PageResponseDTO<NovelDetailResponseDTO> page;
+
+    @Setup
+    public void setUp() {
+        content = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            content.add(RedisCodecBenchmark.novel(i));
+        }
+        page = PageResponseDTO.of(content, 1_000, 0, size);
+    }
+
+    @Benchmark
+    public PageResponseDTO<NovelDetailResponseDTO> construct() {
+        return PageResponseDTO.of(content, 1_000, 0, size);
+    }
+
+    @Benchmark
+    public List<NovelDetailResponseDTO> getContent() {
+        return page.getContent();
+    }
+}
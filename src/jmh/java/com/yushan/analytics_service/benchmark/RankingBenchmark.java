@@ -0,0 +1,143 @@
+package com.yushan.analytics_service.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.yushan.analytics_service.dto.AuthorResponseDTO;
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.dto.PageResponseDTO;
+import com.yushan.analytics_service.service.NovelCatalog;
+import com.yushan.analytics_service.service.NovelCatalogSnapshot;
+import com.yushan.analytics_service.service.RankingService;
+import com.yushan.analytics_service.service.RankingUpdateService;
+import com.yushan.analytics_service.util.RedisRankingUtil;
+import com.yushan.analytics_service.util.RedisUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory work of the ranking services with Redis and the content service stubbed out:
+ * the full rebuild of novel and author rankings from the catalog (author aggregation, per-category
+ * scores and the best-rank index), and hydrating one ranking page for novels and for authors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int CATEGORIES = 20;
+
+    @Param({"1000", "20000"})
+    public int novels;
+
+    private RankingUpdateService rankingUpdateService;
+    private RankingService rankingService;
+    private volatile Object written;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        List<UUID> authors = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, novels / 5); i++) {
+            authors.add(UUID.randomUUID());
+        }
+        List<NovelDetailResponseDTO> catalogNovels = new ArrayList<>(novels);
+        for (int i = 1; i <= novels; i++) {
+            NovelDetailResponseDTO novel = RedisCodecBenchmark.novel(i);
+            novel.setAuthorId(authors.get(i % authors.size()));
+            novel.setCategoryId(i % CATEGORIES + 1);
+            novel.setCategoryName("Category " + (i % CATEGORIES + 1));
+            novel.setViewCnt((i * 7919) % 100_000);
+            novel.setVoteCnt((i * 104_729) % 5_000);
+            catalogNovels.add(novel);
+        }
+
+        NovelCatalog catalog = new NovelCatalog() {
+            @Override
+            public NovelCatalogSnapshot refresh() {
+                return snapshot();
+            }
+        };
+        ReflectionTestUtils.setField(catalog, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(catalog, "missTtlSeconds", 60L);
+        catalog.registerMetrics();
+        catalog.upsert(catalogNovels);
+
+        // A page of the ranking ZSETs: the first novels, and the authors who wrote them
+        Map<String, Double> novelPage = new LinkedHashMap<>();
+        Map<String, Double> authorPage = new LinkedHashMap<>();
+        for (int i = 1; novelPage.size() < PAGE_SIZE; i++) {
+            novelPage.put(String.valueOf(i), (double) (novels - i));
+        }
+        for (int i = 0; authorPage.size() < Math.min(PAGE_SIZE, authors.size()); i++) {
+            authorPage.put(authors.get(i).toString(), (double) (authors.size() - i));
+        }
+        RedisUtil redisUtil = new RedisUtil() {
+            @Override
+            public Set<String> keys(String pattern) {
+                return Set.of();
+            }
+
+            @Override
+            public ZSetPage zReversePageWithScores(String key, long start, long end) {
+                return new ZSetPage(100, key.startsWith("ranking:author") ? authorPage : novelPage);
+            }
+        };
+        RedisRankingUtil redisRankingUtil = new RedisRankingUtil() {
+            @Override
+            public void replaceSortedSets(Map<String, Map<String, Double>> sets, Collection<String> staleKeys) {
+                written = sets;
+            }
+        };
+
+        rankingUpdateService = new RankingUpdateService();
+        ReflectionTestUtils.setField(rankingUpdateService, "novelCatalog", catalog);
+        ReflectionTestUtils.setField(rankingUpdateService, "redisUtil", redisUtil);
+        ReflectionTestUtils.setField(rankingUpdateService, "redisRankingUtil", redisRankingUtil);
+
+        rankingService = new RankingService();
+        ReflectionTestUtils.setField(rankingService, "novelCatalog", catalog);
+        ReflectionTestUtils.setField(rankingService, "redisUtil", redisUtil);
+    }
+
+    @Benchmark
+    public Object rebuildRankings() {
+        rankingUpdateService.updateNovelRankings();
+        return written;
+    }
+
+    @Benchmark
+    public PageResponseDTO<NovelDetailResponseDTO> novelPage() {
+        return rankingService.rankNovel(0, PAGE_SIZE, "view", null, null);
+    }
+
+    @Benchmark
+    public PageResponseDTO<AuthorResponseDTO> authorPage() {
+        return rankingService.rankAuthor(0, PAGE_SIZE, "view", null);
+    }
+}
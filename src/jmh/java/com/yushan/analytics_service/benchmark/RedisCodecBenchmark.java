@@ -0,0 +1,117 @@
+package com.yushan.analytics_service.benchmark;
+
+import com.yushan.analytics_service.config.RedisConfig;
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.dto.PageResponseDTO;
+import com.yushan.analytics_service.dto.UserProfileResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of the Redis value codecs for the DTOs this service caches.
+ * The encoded size of each entry is printed once per trial as "bytes per entry".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisCodecBenchmark {
+
+    @Param({"json", "smile"})
+    public String codec;
+
+    @Param({"novel", "user", "page"})
+    public String entry;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = RedisConfig.valueSerializer("smile".equals(codec), 1024);
+        value = switch (entry) {
+            case "novel" -> novel(1);
+            case "user" -> user();
+            default -> page();
+        };
+        encoded = serializer.serialize(value);
+        System.out.printf("%n%s %s: %d bytes per entry%n", codec, entry, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+
+    static NovelDetailResponseDTO novel(int id) {
+        NovelDetailResponseDTO novel = new NovelDetailResponseDTO();
+        novel.setId(id);
+        novel.setUuid(UUID.randomUUID());
+        novel.setTitle("The Wandering Sword, Volume " + id);
+        novel.setAuthorId(UUID.randomUUID());
+        novel.setAuthorUsername("author" + id);
+        novel.setAvgRating(4.5f);
+        novel.setViewCnt(120_000 + id);
+        novel.setVoteCnt(3_400 + id);
+        novel.setCoverImgUrl("https://cdn.example.com/covers/" + id + ".jpg");
+        novel.setCategoryId(3);
+        novel.setCategoryName("Fantasy");
+        novel.setSynopsis("A disgraced swordsman travels the nine provinces in search of the blade that broke him.");
+        novel.setIsCompleted(false);
+        return novel;
+    }
+
+    static UserProfileResponseDTO user() {
+        UserProfileResponseDTO user = new UserProfileResponseDTO();
+        user.setUuid(UUID.randomUUID().toString());
+        user.setEmail("reader@example.com");
+        user.setUsername("reader");
+        user.setAvatarUrl("https://cdn.example.com/avatars/reader.png");
+        user.setProfileDetail("Reads mostly fantasy and cultivation novels.");
+        user.setIsAuthor(false);
+        user.setIsAdmin(false);
+        user.setCreateTime(new Date());
+        user.setUpdateTime(new Date());
+        user.setLastActive(new Date());
+        user.setLevel(12);
+        user.setCurrentExp(4_200);
+        return user;
+    }
+
+    static PageResponseDTO<NovelDetailResponseDTO> page() {
+        List<NovelDetailResponseDTO> novels = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            novels.add(novel(i));
+        }
+        return new PageResponseDTO<>(novels, 1_000, 0, 20);
+    }
+}
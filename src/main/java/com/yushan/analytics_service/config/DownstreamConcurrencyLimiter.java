@@ -0,0 +1,102 @@
+package com.yushan.analytics_service.config;
+
+import feign.Capability;
+import feign.Client;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import feign.Request;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign capability that caps concurrent calls per downstream service with a semaphore.
+ * With request handling on virtual threads nothing else bounds how many calls are in flight, so
+ * a latency spike downstream would otherwise turn into an unbounded pile-up of calls.
+ * Calls that cannot get a permit within the acquire timeout fail like an I/O error, which
+ * triggers the client's fallback.
+ */
+public class DownstreamConcurrencyLimiter implements Capability {
+
+    private final Map<String, Integer> limits;
+    private final int defaultLimit;
+    private final Duration acquireTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Limit> byService = new ConcurrentHashMap<>();
+
+    /**
+     * @param limits maximum concurrent calls by Feign client name
+     * @param defaultLimit limit for clients without an entry in limits
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "The meter registry is a shared Spring bean")
+    public DownstreamConcurrencyLimiter(Map<String, Integer> limits, int defaultLimit, Duration acquireTimeout,
+                                        MeterRegistry meterRegistry) {
+        this.limits = Map.copyOf(limits);
+        this.defaultLimit = defaultLimit;
+        this.acquireTimeout = acquireTimeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            Limit limit = limitFor(request);
+            acquire(limit);
+            try {
+                return client.execute(request, options);
+            } finally {
+                limit.permits.release();
+            }
+        };
+    }
+
+    private Limit limitFor(Request request) {
+        String service = request.requestTemplate() != null && request.requestTemplate().feignTarget() != null
+                ? request.requestTemplate().feignTarget().name()
+                : "unknown";
+        return byService.computeIfAbsent(service, name -> new Limit(name, limits.getOrDefault(name, defaultLimit)));
+    }
+
+    private void acquire(Limit limit) throws IOException {
+        boolean acquired;
+        try {
+            acquired = limit.permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting to call " + limit.service);
+        }
+        if (!acquired) {
+            limit.rejected.increment();
+            throw new IOException("Too many concurrent calls to " + limit.service
+                    + " (limit " + limit.max + ")");
+        }
+    }
+
+    private final class Limit {
+        private final String service;
+        private final int max;
+        private final Semaphore permits;
+        private final Counter rejected;
+
+        private Limit(String service, int max) {
+            this.service = service;
+            this.max = max;
+            this.permits = new Semaphore(max);
+            this.rejected = Counter.builder("analytics.downstream.rejected")
+                    .description("Downstream calls rejected because the concurrency limit was reached")
+                    .tag("service", service)
+                    .register(meterRegistry);
+            Gauge.builder("analytics.downstream.in-flight", permits, p -> max - p.availablePermits())
+                    .description("Downstream calls currently in flight")
+                    .tag("service", service)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.yushan.analytics_service.config;
+
+import feign.Capability;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-downstream concurrency limits for all Feign clients.
+ * Picked up by every client from the application context, so it is not part of FeignAuthConfig,
+ * which each client also registers in its own context.
+ */
+@Configuration
+public class FeignConcurrencyConfig {
+
+    @Value("${analytics.downstream.max-concurrent-calls.content:32}")
+    private int contentLimit;
+
+    @Value("${analytics.downstream.max-concurrent-calls.user:32}")
+    private int userLimit;
+
+    @Value("${analytics.downstream.max-concurrent-calls.engagement:16}")
+    private int engagementLimit;
+
+    @Value("${analytics.downstream.max-concurrent-calls.gamification:16}")
+    private int gamificationLimit;
+
+    @Value("${analytics.downstream.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+
+    @Bean
+    public Capability downstreamConcurrencyLimiter(MeterRegistry meterRegistry) {
+        Map<String, Integer> limits = Map.of(
+                "content-service", contentLimit,
+                "user-service", userLimit,
+                "engagement-service", engagementLimit,
+                "gamification-service", gamificationLimit);
+        return new DownstreamConcurrencyLimiter(limits, Math.min(contentLimit, userLimit),
+                Duration.ofMillis(acquireTimeoutMs), meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.yushan.analytics_service.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.Map;
+
+/**
+ * Kafka configuration for ranking event consumers.
+ * Only active when spring.kafka.enabled is true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true")
+public class KafkaConfig {
+
+    /**
+     * Batch listener container factory for ranking events.
+     * Records are consumed as raw JSON strings in micro-batches; failed batches are retried
+     * a few times, which is safe because ranking updates are deduplicated by event id.
+     *
+     * @param kafkaProperties Spring Boot Kafka properties
+     * @param groupId consumer group of the ranking listeners
+     * @param maxBatchSize maximum records per micro-batch
+     * @return Configured listener container factory
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> rankingEventListenerContainerFactory(
+            KafkaProperties kafkaProperties,
+            @Value("${analytics.ranking.events.group-id:analytics-service-ranking}") String groupId,
+            @Value("${analytics.ranking.events.max-batch-size:500}") int maxBatchSize) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties(null);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxBatchSize);
+        props.putIfAbsent(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), new StringDeserializer()));
+        factory.setBatchListener(true);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 3L)));
+        return factory;
+    }
+}
@@ -4,11 +4,14 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
@@ -22,21 +25,18 @@ public class RedisConfig {
      * Configure RedisTemplate with proper serialization.
      * 
      * @param connectionFactory Redis connection factory
+     * @param codec value codec for objects: json, or smile once every instance can read it
+     * @param compressionThreshold Smile values of at least this many bytes are LZ4-compressed
      * @return Configured RedisTemplate
      */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       @Value("${analytics.redis.codec:json}") String codec,
+                                                       @Value("${analytics.redis.compression-threshold:1024}") int compressionThreshold) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
-        // Configure ObjectMapper
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
-        
-        // Configure Jackson2JsonRedisSerializer with ObjectMapper
-        Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer = 
-            new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
+        RedisSerializer<Object> valueSerializer = valueSerializer("smile".equalsIgnoreCase(codec), compressionThreshold);
 
         // Configure StringRedisSerializer for keys
         StringRedisSerializer stringRedisSerializer = new StringRedisSerializer();
@@ -44,10 +44,26 @@ public class RedisConfig {
         // Set serializers
         template.setKeySerializer(stringRedisSerializer);
         template.setHashKeySerializer(stringRedisSerializer);
-        template.setValueSerializer(jackson2JsonRedisSerializer);
-        template.setHashValueSerializer(jackson2JsonRedisSerializer);
+        template.setValueSerializer(valueSerializer);
+        template.setHashValueSerializer(valueSerializer);
         
         template.afterPropertiesSet();
         return template;
     }
+
+    /**
+     * Value serializer reading both JSON and Smile values, writing objects as Smile if writeBinary is set
+     */
+    public static RedisSerializer<Object> valueSerializer(boolean writeBinary, int compressionThreshold) {
+        Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer =
+            new Jackson2JsonRedisSerializer<>(configure(new ObjectMapper()), Object.class);
+        return new VersionedRedisSerializer(jackson2JsonRedisSerializer,
+            configure(new ObjectMapper(new SmileFactory())), writeBinary, compressionThreshold);
+    }
+
+    private static ObjectMapper configure(ObjectMapper objectMapper) {
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+        return objectMapper;
+    }
 }
@@ -76,6 +76,7 @@ public class SecurityConfig {
 
                         // Ranking APIs - public access
                         .requestMatchers(HttpMethod.GET, "/api/v1/ranking/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/v1/ranking/novel/best-ranks", "/api/v1/ranking/novel/ranks").permitAll()
 
                         // History APIs - all require authentication
                         .requestMatchers(HttpMethod.GET, "/api/v1/history/**").authenticated()
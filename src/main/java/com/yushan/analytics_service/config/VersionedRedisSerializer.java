@@ -0,0 +1,110 @@
+package com.yushan.analytics_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Redis value serializer that writes objects in a compact binary codec behind a versioned header
+ * and still reads the plain JSON written by older instances.
+ * <p>
+ * Binary values start with a zero byte, which never starts a JSON document, followed by the codec
+ * version: {@link #SMILE} for Smile, or {@link #SMILE_LZ4} for Smile compressed with LZ4 (followed by
+ * the uncompressed length) once the payload reaches the compression threshold. Values without the
+ * header are decoded as JSON, so instances writing either format can share a Redis during rollout.
+ * <p>
+ * Strings, numbers and booleans are always written as JSON: they are used as sorted set and set
+ * members, which must keep the same bytes whichever codec wrote them.
+ */
+public class VersionedRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte HEADER = 0;
+    static final byte SMILE = 1;
+    static final byte SMILE_LZ4 = 2;
+
+    private static final int SMILE_OFFSET = 2;
+    private static final int SMILE_LZ4_OFFSET = 6;
+
+    private final RedisSerializer<Object> json;
+    private final ObjectMapper smile;
+    private final boolean writeBinary;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4SafeDecompressor decompressor = LZ4Factory.fastestInstance().safeDecompressor();
+
+    /**
+     * @param json serializer for JSON values, also used for every value when writeBinary is off
+     * @param smile mapper over a Smile factory, configured like the JSON mapper
+     * @param writeBinary write objects with Smile; reading always accepts both formats
+     * @param compressionThreshold Smile payloads of at least this many bytes are LZ4-compressed
+     */
+    public VersionedRedisSerializer(RedisSerializer<Object> json, ObjectMapper smile,
+                                    boolean writeBinary, int compressionThreshold) {
+        this.json = json;
+        this.smile = smile.copy();
+        this.writeBinary = writeBinary;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null || !writeBinary || isScalar(value)) {
+            return json.serialize(value);
+        }
+        byte[] payload;
+        try {
+            payload = smile.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write Smile: " + e.getMessage(), e);
+        }
+
+        if (payload.length < compressionThreshold) {
+            byte[] bytes = new byte[SMILE_OFFSET + payload.length];
+            bytes[0] = HEADER;
+            bytes[1] = SMILE;
+            System.arraycopy(payload, 0, bytes, SMILE_OFFSET, payload.length);
+            return bytes;
+        }
+        byte[] bytes = new byte[SMILE_LZ4_OFFSET + compressor.maxCompressedLength(payload.length)];
+        ByteBuffer.wrap(bytes).put(HEADER).put(SMILE_LZ4).putInt(payload.length);
+        int compressedLength = compressor.compress(payload, 0, payload.length, bytes, SMILE_LZ4_OFFSET);
+        return Arrays.copyOf(bytes, SMILE_LZ4_OFFSET + compressedLength);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != HEADER) {
+            return json.deserialize(bytes);
+        }
+        if (bytes.length < SMILE_OFFSET) {
+            throw new SerializationException("Truncated Redis value header");
+        }
+        try {
+            switch (bytes[1]) {
+                case SMILE:
+                    return smile.readValue(bytes, SMILE_OFFSET, bytes.length - SMILE_OFFSET, Object.class);
+                case SMILE_LZ4:
+                    int length = ByteBuffer.wrap(bytes, SMILE_OFFSET, Integer.BYTES).getInt();
+                    byte[] payload = new byte[length];
+                    decompressor.decompress(bytes, SMILE_LZ4_OFFSET, bytes.length - SMILE_LZ4_OFFSET, payload, 0, length);
+                    return smile.readValue(payload, Object.class);
+                default:
+                    throw new SerializationException("Unknown Redis value codec version " + bytes[1]);
+            }
+        } catch (IOException | LZ4Exception e) {
+            throw new SerializationException("Could not read Redis value: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isScalar(Object value) {
+        return value instanceof CharSequence || value instanceof Number || value instanceof Boolean;
+    }
+}
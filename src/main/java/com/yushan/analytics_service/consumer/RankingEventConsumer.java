@@ -0,0 +1,76 @@
+package com.yushan.analytics_service.consumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.analytics_service.dto.NovelEngagementEventDTO;
+import com.yushan.analytics_service.dto.NovelLifecycleEventDTO;
+import com.yushan.analytics_service.dto.RankingEventDTO;
+import com.yushan.analytics_service.dto.UserExpEventDTO;
+import com.yushan.analytics_service.service.RankingEventService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kafka consumer applying ranking events in micro-batches.
+ * Only active when spring.kafka.enabled is true.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true")
+public class RankingEventConsumer {
+
+    @Autowired
+    private RankingEventService rankingEventService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @KafkaListener(topics = "${analytics.ranking.events.engagement-topic:novel-engagement-events}",
+            containerFactory = "rankingEventListenerContainerFactory")
+    public void onNovelEngagementEvents(List<ConsumerRecord<String, String>> records) {
+        rankingEventService.applyEngagementEvents(parse(records, NovelEngagementEventDTO.class));
+    }
+
+    @KafkaListener(topics = "${analytics.ranking.events.lifecycle-topic:novel-lifecycle-events}",
+            containerFactory = "rankingEventListenerContainerFactory")
+    public void onNovelLifecycleEvents(List<ConsumerRecord<String, String>> records) {
+        rankingEventService.applyLifecycleEvents(parse(records, NovelLifecycleEventDTO.class));
+    }
+
+    @KafkaListener(topics = "${analytics.ranking.events.user-exp-topic:user-exp-events}",
+            containerFactory = "rankingEventListenerContainerFactory")
+    public void onUserExpEvents(List<ConsumerRecord<String, String>> records) {
+        rankingEventService.applyUserExpEvents(parse(records, UserExpEventDTO.class));
+    }
+
+    /**
+     * Deserialize records in order, skipping malformed ones.
+     * Events without an id fall back to their topic-partition-offset, which is stable across replays.
+     */
+    private <T extends RankingEventDTO> List<T> parse(List<ConsumerRecord<String, String>> records, Class<T> type) {
+        List<T> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            if (record.value() == null) {
+                continue;
+            }
+            try {
+                T event = objectMapper.readValue(record.value(), type);
+                if (event.getEventId() == null) {
+                    event.setEventId(record.topic() + "-" + record.partition() + "-" + record.offset());
+                }
+                events.add(event);
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping malformed {} record at {}-{}@{}: {}", type.getSimpleName(),
+                        record.topic(), record.partition(), record.offset(), e.getOriginalMessage());
+            }
+        }
+        return events;
+    }
+}
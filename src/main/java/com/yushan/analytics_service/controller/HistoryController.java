@@ -6,8 +6,11 @@ import com.yushan.analytics_service.dto.PageResponseDTO;
 import com.yushan.analytics_service.exception.UnauthorizedException;
 import com.yushan.analytics_service.exception.ValidationException;
 import com.yushan.analytics_service.security.CustomUserDetails;
+import com.yushan.analytics_service.service.HistoryIngestionService;
 import com.yushan.analytics_service.service.HistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -27,18 +30,26 @@ public class HistoryController {
     @Autowired
     private HistoryService historyService;
 
+    @Autowired
+    private HistoryIngestionService historyIngestionService;
+
     /**
      * Add or update a viewing history record
+     * Returns 202 when the write is queued for batched ingestion
      */
     @PostMapping("/novels/{novelId}/chapters/{chapterId}")
     @PreAuthorize("isAuthenticated()")
-    public ApiResponse<String> addOrUpdateHistory(
+    public ResponseEntity<ApiResponse<String>> addOrUpdateHistory(
             @PathVariable Integer novelId,
             @PathVariable Integer chapterId,
             Authentication authentication) {
         UUID userId = getCurrentUserId(authentication);
-        historyService.addOrUpdateHistory(userId, novelId, chapterId);
-        return ApiResponse.success("History created/updated successfully");
+        if (historyIngestionService.submit(userId, novelId, chapterId)) {
+            return ResponseEntity
+                    .status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse<>(true, "History accepted for processing", null, HttpStatus.ACCEPTED.value()));
+        }
+        return ResponseEntity.ok(ApiResponse.success("History created/updated successfully"));
     }
 
     /**
@@ -4,6 +4,7 @@ import com.yushan.analytics_service.dto.ApiResponse;
 import com.yushan.analytics_service.dto.AuthorResponseDTO;
 import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
 import com.yushan.analytics_service.dto.NovelRankDTO;
+import com.yushan.analytics_service.dto.NovelRanksRequestDTO;
 import com.yushan.analytics_service.dto.PageResponseDTO;
 import com.yushan.analytics_service.dto.UserProfileResponseDTO;
 import com.yushan.analytics_service.service.RankingService;
@@ -11,15 +12,19 @@ import com.yushan.analytics_service.service.RankingUpdateService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/ranking")
 @Tag(name = "Ranking", description = "Ranking APIs for novels, users, and authors")
@@ -38,7 +43,8 @@ public class RankingController {
      * @param size Page size (default 50)
      * @param sortType Sort type: "view" or "vote" (default "view")
      * @param categoryId Category ID for filtering (optional)
-     * @param timeRange Time range: "weekly", "monthly", or "overall" (default "overall")
+     * @param timeRange Time range: "weekly", "monthly", or "overall" (default "overall");
+     *                  weekly and monthly vote rankings are rejected with 400 while ranking events are disabled
      * @return Paginated novel ranking
      */
     @Operation(summary = "Get novel ranking", description = "Retrieve paginated novel rankings with optional filtering by category and sort type")
@@ -95,7 +101,8 @@ public class RankingController {
      * @param page Page number (0-indexed)
      * @param size Page size (default 50)
      * @param sortType Sort type: "novelNum", "view", or "vote" (default "vote")
-     * @param timeRange Time range: "weekly", "monthly", or "overall" (default "overall")
+     * @param timeRange Time range: "weekly", "monthly", or "overall" (default "overall");
+     *                  weekly and monthly vote rankings are rejected with 400 while ranking events are disabled
      * @return Paginated author ranking
      */
     @Operation(summary = "Get author ranking", description = "Retrieve paginated author rankings with configurable sort type")
@@ -139,6 +146,33 @@ public class RankingController {
         return ApiResponse.success("Novel rank retrieved successfully", rank);
     }
     
+    /**
+     * Get the ranks of several novels in one ranking at once
+     *
+     * @param request Novel IDs plus the ranking: sort type, optional category and time range
+     * @return Ranks of the novels that are in the ranking, in request order
+     */
+    @Operation(summary = "Get ranks for novels", description = "Retrieve the rank of each given novel in one ranking in a single request")
+    @PostMapping("/novel/ranks")
+    public ApiResponse<List<NovelRankDTO>> getNovelRanks(@Valid @RequestBody NovelRanksRequestDTO request) {
+        List<NovelRankDTO> ranks = rankingService.getNovelRanks(
+                request.getNovelIds(), request.getSortType(), request.getCategoryId(), request.getTimeRange());
+        return ApiResponse.success("Novel ranks retrieved successfully", ranks);
+    }
+
+    /**
+     * Get the best ranks for several novels at once
+     *
+     * @param novelIds Novel IDs
+     * @return Best ranks of the novels that have one, in request order
+     */
+    @Operation(summary = "Get best ranks for novels", description = "Retrieve the best rank of each given novel in a single request")
+    @PostMapping("/novel/best-ranks")
+    public ApiResponse<List<NovelRankDTO>> getBestNovelRanks(@RequestBody List<Integer> novelIds) {
+        List<NovelRankDTO> ranks = rankingService.getBestNovelRanks(novelIds);
+        return ApiResponse.success("Novel ranks retrieved successfully", ranks);
+    }
+
     /**
      * Manually trigger ranking update (Admin only)
      * This will update all rankings: novels, users, and authors
@@ -1,7 +1,9 @@
 package com.yushan.analytics_service.dao;
 
+import com.yushan.analytics_service.dto.AnalyticsSummaryResponseDTO;
 import com.yushan.analytics_service.dto.AnalyticsTrendResponseDTO;
 import com.yushan.analytics_service.dto.DailyActiveUsersResponseDTO;
+import com.yushan.analytics_service.dto.PlatformStatisticsResponseDTO;
 import com.yushan.analytics_service.dto.ReadingActivityResponseDTO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -48,6 +50,22 @@ public interface AnalyticsMapper {
     // Total history records (reading sessions)
     Long getTotalReadingSessions(@Param("startDate") Date startDate, @Param("endDate") Date endDate);
     
+    // All-time reading sessions, from the rolled-up counter
+    Long getAllTimeReadingSessions();
+
+    // DAU/WAU/MAU as of date and all-time sessions, in one pass over the month of activity
+    PlatformStatisticsResponseDTO.ActivityTotals getPlatformActivityTotals(
+            @Param("date") Date date,
+            @Param("weekStart") Date weekStart,
+            @Param("monthStart") Date monthStart);
+
+    // Summary totals of a period and the period before it, in one pass over the activity
+    AnalyticsSummaryResponseDTO.PeriodTotals getSummaryTotals(
+            @Param("startDate") Date startDate,
+            @Param("endDate") Date endDate,
+            @Param("previousStartDate") Date previousStartDate,
+            @Param("previousEndDate") Date previousEndDate);
+    
     // Most read novels from history
     List<Integer> getMostReadNovelIds(@Param("limit") Integer limit);
     
@@ -0,0 +1,15 @@
+package com.yushan.analytics_service.dao;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * MyBatis Mapper maintaining the analytics rollup tables from the reading activity log
+ */
+@Mapper
+public interface AnalyticsRollupMapper {
+
+    String lockRollupState();
+
+    Integer rollupNextBatch(@Param("batchSize") int batchSize);
+}
@@ -21,6 +21,11 @@ public interface HistoryMapper {
 
     int updateByPrimaryKey(History record);
 
+    int upsert(History record);
+
+    int upsertBatch(@Param("records") List<History> records,
+                    @Param("reads") List<History> reads);
+
     History selectByUserAndNovel(@Param("userId") UUID userId,
                                  @Param("novelId") Integer novelId);
 
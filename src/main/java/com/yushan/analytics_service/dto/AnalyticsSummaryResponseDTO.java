@@ -34,6 +34,19 @@ public class AnalyticsSummaryResponseDTO {
     private Double averageRating;
     
     public AnalyticsSummaryResponseDTO() {}
+
+    /**
+     * Activity totals of the summary period and the period before it, computed in one query
+     */
+    @Data
+    public static class PeriodTotals {
+        private Long activeUsers;
+        private Long uniqueNovelsRead;
+        private Long readingSessions;
+        private Long previousActiveUsers;
+        private Long previousUniqueNovelsRead;
+        private Long previousReadingSessions;
+    }
     
     public Date getStartDate() {
         return startDate != null ? new Date(startDate.getTime()) : null;
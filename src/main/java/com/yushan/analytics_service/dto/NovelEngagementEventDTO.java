@@ -0,0 +1,21 @@
+package com.yushan.analytics_service.dto;
+
+import com.yushan.analytics_service.enums.NovelEngagementType;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.UUID;
+
+/**
+ * DTO for novel view/vote events
+ * categoryId and authorId are optional and resolved from the novel catalog when missing
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class NovelEngagementEventDTO extends RankingEventDTO {
+    private Integer novelId;
+    private NovelEngagementType type;
+    private Integer delta;
+    private Integer categoryId;
+    private UUID authorId;
+}
@@ -0,0 +1,18 @@
+package com.yushan.analytics_service.dto;
+
+import com.yushan.analytics_service.enums.NovelLifecycleType;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * DTO for novel created/deleted events
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+        justification = "Event payload deserialized by Jackson and only read")
+public class NovelLifecycleEventDTO extends RankingEventDTO {
+    private NovelLifecycleType type;
+    private NovelDetailResponseDTO novel;
+}
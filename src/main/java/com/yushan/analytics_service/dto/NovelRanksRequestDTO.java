@@ -0,0 +1,31 @@
+package com.yushan.analytics_service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for bulk novel rank lookups in one ranking
+ */
+@Data
+public class NovelRanksRequestDTO {
+
+    @NotEmpty(message = "novelIds must not be empty")
+    private List<Integer> novelIds;
+
+    private String sortType = "view";
+
+    private Integer categoryId;
+
+    private String timeRange = "overall";
+
+    public List<Integer> getNovelIds() {
+        return novelIds != null ? new ArrayList<>(novelIds) : null;
+    }
+
+    public void setNovelIds(List<Integer> novelIds) {
+        this.novelIds = novelIds != null ? new ArrayList<>(novelIds) : null;
+    }
+}
@@ -23,6 +23,17 @@ public class PlatformStatisticsResponseDTO {
     // Engagement statistics (from engagement service - if available)
     private Long totalComments;
     private Long totalReviews;
+
+    /**
+     * Active user counts and all-time sessions, computed in one query
+     */
+    @Data
+    public static class ActivityTotals {
+        private Long dailyActiveUsers;
+        private Long weeklyActiveUsers;
+        private Long monthlyActiveUsers;
+        private Long totalReadingSessions;
+    }
     
     public Date getTimestamp() {
         return timestamp != null ? new Date(timestamp.getTime()) : null;
@@ -0,0 +1,14 @@
+package com.yushan.analytics_service.dto;
+
+import lombok.Data;
+
+/**
+ * Base DTO for events consumed to update rankings incrementally
+ */
+@Data
+public abstract class RankingEventDTO {
+    /**
+     * Unique id of the event, used to apply replayed events only once
+     */
+    private String eventId;
+}
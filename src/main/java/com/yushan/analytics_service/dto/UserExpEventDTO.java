@@ -0,0 +1,15 @@
+package com.yushan.analytics_service.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * DTO for gamification experience events carrying the user's new level and exp
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class UserExpEventDTO extends RankingEventDTO {
+    private String userId;
+    private Integer level;
+    private Integer currentExp;
+}
@@ -0,0 +1,9 @@
+package com.yushan.analytics_service.enums;
+
+/**
+ * Enum representing the kind of engagement counted in novel rankings.
+ */
+public enum NovelEngagementType {
+    VIEW,
+    VOTE
+}
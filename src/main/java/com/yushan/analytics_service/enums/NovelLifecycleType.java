@@ -0,0 +1,9 @@
+package com.yushan.analytics_service.enums;
+
+/**
+ * Enum representing novel lifecycle events that add or remove novels from rankings.
+ */
+public enum NovelLifecycleType {
+    CREATED,
+    DELETED
+}
@@ -1,7 +1,9 @@
 package com.yushan.analytics_service.repository;
 
+import com.yushan.analytics_service.dto.AnalyticsSummaryResponseDTO;
 import com.yushan.analytics_service.dto.AnalyticsTrendResponseDTO;
 import com.yushan.analytics_service.dto.DailyActiveUsersResponseDTO;
+import com.yushan.analytics_service.dto.PlatformStatisticsResponseDTO;
 import com.yushan.analytics_service.dto.ReadingActivityResponseDTO;
 
 import java.util.Date;
@@ -45,6 +47,19 @@ public interface AnalyticsRepository {
     // Total history records (reading sessions)
     Long getTotalReadingSessions(Date startDate, Date endDate);
     
+    // All-time reading sessions
+    Long getAllTimeReadingSessions();
+
+    // DAU/WAU/MAU as of date and all-time sessions
+    PlatformStatisticsResponseDTO.ActivityTotals getPlatformActivityTotals(Date date, Date weekStart, Date monthStart);
+
+    // Summary totals of a period and the period before it
+    AnalyticsSummaryResponseDTO.PeriodTotals getSummaryTotals(
+            Date startDate,
+            Date endDate,
+            Date previousStartDate,
+            Date previousEndDate);
+    
     // Most read novels from history
     List<Integer> getMostReadNovelIds(Integer limit);
     
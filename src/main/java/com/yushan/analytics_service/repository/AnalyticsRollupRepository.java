@@ -0,0 +1,15 @@
+package com.yushan.analytics_service.repository;
+
+/**
+ * Repository interface for the analytics rollup tables.
+ * Rollups hold the reads moved out of the reading activity log; reads still in the log are
+ * queried from it directly.
+ */
+public interface AnalyticsRollupRepository {
+
+    // Lock the rollup state until the surrounding transaction ends
+    void lock();
+
+    // Move the oldest batchSize reads into all rollups and the sessions counter; returns the number moved
+    int rollupNextBatch(int batchSize);
+}
@@ -17,6 +17,12 @@ public interface HistoryRepository {
     History save(History history);
     
     void delete(Integer id);
+
+    // Insert or update the record of a (user, novel) and log the read, in a single statement
+    int upsert(History history);
+
+    // Insert or update many records by (user, novel), never moving a record back in time, and log every read
+    int upsertBatch(List<History> histories, List<History> reads);
     
     // Find by foreign keys
     History findByUserAndNovel(UUID userId, Integer novelId);
@@ -1,8 +1,10 @@
 package com.yushan.analytics_service.repository.impl;
 
 import com.yushan.analytics_service.dao.AnalyticsMapper;
+import com.yushan.analytics_service.dto.AnalyticsSummaryResponseDTO;
 import com.yushan.analytics_service.dto.AnalyticsTrendResponseDTO;
 import com.yushan.analytics_service.dto.DailyActiveUsersResponseDTO;
+import com.yushan.analytics_service.dto.PlatformStatisticsResponseDTO;
 import com.yushan.analytics_service.dto.ReadingActivityResponseDTO;
 import com.yushan.analytics_service.repository.AnalyticsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -69,6 +71,22 @@ public class MyBatisAnalyticsRepository implements AnalyticsRepository {
         return analyticsMapper.getTotalReadingSessions(startDate, endDate);
     }
 
+    @Override
+    public Long getAllTimeReadingSessions() {
+        return analyticsMapper.getAllTimeReadingSessions();
+    }
+
+    @Override
+    public PlatformStatisticsResponseDTO.ActivityTotals getPlatformActivityTotals(Date date, Date weekStart, Date monthStart) {
+        return analyticsMapper.getPlatformActivityTotals(date, weekStart, monthStart);
+    }
+
+    @Override
+    public AnalyticsSummaryResponseDTO.PeriodTotals getSummaryTotals(
+            Date startDate, Date endDate, Date previousStartDate, Date previousEndDate) {
+        return analyticsMapper.getSummaryTotals(startDate, endDate, previousStartDate, previousEndDate);
+    }
+
     @Override
     public List<Integer> getMostReadNovelIds(Integer limit) {
         return analyticsMapper.getMostReadNovelIds(limit);
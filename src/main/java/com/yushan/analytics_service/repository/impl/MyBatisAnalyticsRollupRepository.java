@@ -0,0 +1,30 @@
+package com.yushan.analytics_service.repository.impl;
+
+import com.yushan.analytics_service.dao.AnalyticsRollupMapper;
+import com.yushan.analytics_service.repository.AnalyticsRollupRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class MyBatisAnalyticsRollupRepository implements AnalyticsRollupRepository {
+
+    private final AnalyticsRollupMapper analyticsRollupMapper;
+
+    @Autowired
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "The mapper is a shared Spring bean")
+    public MyBatisAnalyticsRollupRepository(AnalyticsRollupMapper analyticsRollupMapper) {
+        this.analyticsRollupMapper = analyticsRollupMapper;
+    }
+
+    @Override
+    public void lock() {
+        analyticsRollupMapper.lockRollupState();
+    }
+
+    @Override
+    public int rollupNextBatch(int batchSize) {
+        Integer moved = analyticsRollupMapper.rollupNextBatch(batchSize);
+        return moved != null ? moved : 0;
+    }
+}
@@ -26,8 +26,8 @@ public class MyBatisHistoryRepository implements HistoryRepository {
     @Override
     public History save(History history) {
         if (history.getId() == null) {
-            // Insert new history
-            historyMapper.insertSelective(history);
+            // Insert new history, or update the existing one for the same user and novel
+            historyMapper.upsert(history);
         } else {
             // Update existing history
             historyMapper.updateByPrimaryKeySelective(history);
@@ -40,6 +40,19 @@ public class MyBatisHistoryRepository implements HistoryRepository {
         historyMapper.deleteByPrimaryKey(id);
     }
     
+    @Override
+    public int upsert(History history) {
+        return historyMapper.upsert(history);
+    }
+    
+    @Override
+    public int upsertBatch(List<History> histories, List<History> reads) {
+        if (histories == null || histories.isEmpty()) {
+            return 0;
+        }
+        return historyMapper.upsertBatch(histories, reads);
+    }
+    
     @Override
     public History findByUserAndNovel(UUID userId, Integer novelId) {
         return historyMapper.selectByUserAndNovel(userId, novelId);
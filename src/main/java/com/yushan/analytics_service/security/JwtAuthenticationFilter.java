@@ -1,5 +1,6 @@
 package com.yushan.analytics_service.security;
 
+import com.yushan.analytics_service.util.JwtClaims;
 import com.yushan.analytics_service.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -48,13 +49,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 1. Extract token from Authorization header
             String token = extractTokenFromRequest(request);
             
-            if (token != null && jwtUtil.validateToken(token) && jwtUtil.isAccessToken(token)) {
-                // 2. Extract user information from token
-                String userId = jwtUtil.extractUserId(token);
-                String email = jwtUtil.extractEmail(token);
-                String username = jwtUtil.extractUsername(token);
-                String role = jwtUtil.extractRole(token);
-                Integer status = jwtUtil.extractStatus(token);
+            JwtClaims claims = token != null ? jwtUtil.parseToken(token) : null;
+
+            if (claims != null && claims.isAccessToken()) {
+                // 2. Extract user information from the claims, verified once per token
+                String userId = claims.userId();
+                String email = claims.email();
+                String username = claims.username();
+                String role = claims.role();
+                Integer status = claims.status();
                 
                 // 3. Check if user is not already authenticated
                 if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -0,0 +1,188 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.dto.DailyActiveUsersResponseDTO;
+import com.yushan.analytics_service.dto.PlatformStatisticsResponseDTO;
+import com.yushan.analytics_service.entity.History;
+import com.yushan.analytics_service.repository.AnalyticsRepository;
+import com.yushan.analytics_service.util.RedisActivityUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Distinct active-user counts for DAU/WAU/MAU and the hourly breakdown.
+ * In "hll" mode counts come from Redis HyperLogLogs maintained on every history write; in "exact"
+ * mode, on request (audit), for ranges older than the HyperLogLogs, or when Redis fails they are
+ * computed with COUNT(DISTINCT) in the database.
+ */
+@Slf4j
+@Service
+public class ActiveUserService {
+
+    private static final String MODE_EXACT = "exact";
+
+    @Autowired
+    private RedisActivityUtil redisActivityUtil;
+
+    @Autowired
+    private AnalyticsRepository analyticsRepository;
+
+    @Value("${analytics.active-users.mode:hll}")
+    private String mode;
+
+    @Value("${analytics.active-users.daily-retention-days:400}")
+    private long dailyRetentionDays;
+
+    @Value("${analytics.active-users.hourly-retention-days:35}")
+    private long hourlyRetentionDays;
+
+    private volatile LocalDate trackingSince;
+
+    /**
+     * Record that a user was active now
+     */
+    public void recordActivity(UUID userId) {
+        record(List.of(Map.entry(userId.toString(), Instant.now())));
+    }
+
+    /**
+     * Record the activity of written history records
+     */
+    public void recordActivity(List<History> histories) {
+        List<Map.Entry<String, Instant>> activities = new ArrayList<>(histories.size());
+        for (History history : histories) {
+            Instant time = history.getUpdateTime() != null ? history.getUpdateTime().toInstant() : Instant.now();
+            activities.add(Map.entry(history.getUserId().toString(), time));
+        }
+        record(activities);
+    }
+
+    /**
+     * Count distinct users active between two dates (inclusive, by day)
+     *
+     * @param exact force an exact database count
+     */
+    public Long countActiveUsers(Date startDate, Date endDate, boolean exact) {
+        LocalDate startDay = toLocalDate(startDate);
+        LocalDate endDay = toLocalDate(endDate);
+        if (useHll(startDay, exact, dailyRetentionDays)) {
+            try {
+                return redisActivityUtil.countDistinctUsers(startDay, endDay);
+            } catch (Exception e) {
+                log.warn("Falling back to exact active user count: {}", e.getMessage());
+            }
+        }
+        if (startDay.equals(endDay)) {
+            return analyticsRepository.getDailyActiveUsers(startDate);
+        }
+        return analyticsRepository.getActiveUserCount(startDate, endDate);
+    }
+
+    /**
+     * DAU, WAU and MAU as of a date together with all-time reading sessions.
+     * Exact counts take one database pass over the month instead of three separate counts.
+     *
+     * @param exact force an exact database count
+     */
+    public PlatformStatisticsResponseDTO.ActivityTotals getPlatformActivityTotals(Date date, Date weekStart,
+                                                                                  Date monthStart, boolean exact) {
+        LocalDate day = toLocalDate(date);
+        if (useHll(toLocalDate(monthStart), exact, dailyRetentionDays)) {
+            try {
+                PlatformStatisticsResponseDTO.ActivityTotals totals = new PlatformStatisticsResponseDTO.ActivityTotals();
+                totals.setDailyActiveUsers(redisActivityUtil.countDistinctUsers(day, day));
+                totals.setWeeklyActiveUsers(redisActivityUtil.countDistinctUsers(toLocalDate(weekStart), day));
+                totals.setMonthlyActiveUsers(redisActivityUtil.countDistinctUsers(toLocalDate(monthStart), day));
+                totals.setTotalReadingSessions(analyticsRepository.getAllTimeReadingSessions());
+                return totals;
+            } catch (Exception e) {
+                log.warn("Falling back to exact platform activity totals: {}", e.getMessage());
+            }
+        }
+        return analyticsRepository.getPlatformActivityTotals(date, weekStart, monthStart);
+    }
+
+    /**
+     * Active users and reading sessions for each hour of a day, omitting hours without activity
+     *
+     * @param exact force an exact database count
+     */
+    public List<DailyActiveUsersResponseDTO.ActivityDataPoint> getHourlyActiveUsers(Date date, boolean exact) {
+        LocalDate day = toLocalDate(date);
+        if (useHll(day, exact, hourlyRetentionDays)) {
+            try {
+                List<List<Long>> hourly = redisActivityUtil.countHourly(day);
+                List<DailyActiveUsersResponseDTO.ActivityDataPoint> dataPoints = new ArrayList<>();
+                for (int hour = 0; hour < 24; hour++) {
+                    long users = hourly.get(0).get(hour);
+                    if (users == 0) {
+                        continue;
+                    }
+                    DailyActiveUsersResponseDTO.ActivityDataPoint dataPoint = new DailyActiveUsersResponseDTO.ActivityDataPoint();
+                    dataPoint.setHour(hour);
+                    dataPoint.setActiveUsers(users);
+                    dataPoint.setNewUsers(0L);
+                    dataPoint.setReadingSessions(hourly.get(1).get(hour));
+                    dataPoints.add(dataPoint);
+                }
+                return dataPoints;
+            } catch (Exception e) {
+                log.warn("Falling back to exact hourly active users: {}", e.getMessage());
+            }
+        }
+        return analyticsRepository.getHourlyActiveUsers(date);
+    }
+
+    private void record(List<Map.Entry<String, Instant>> activities) {
+        if (MODE_EXACT.equalsIgnoreCase(mode)) {
+            return;
+        }
+        try {
+            redisActivityUtil.recordActivity(activities,
+                    Duration.ofDays(dailyRetentionDays), Duration.ofDays(hourlyRetentionDays));
+        } catch (Exception e) {
+            // Counting is best effort and must never fail the history write
+            log.warn("Failed to record activity of {} users: {}", activities.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * HyperLogLogs only cover days since tracking started and within their retention
+     */
+    private boolean useHll(LocalDate startDay, boolean exact, long retentionDays) {
+        if (exact || MODE_EXACT.equalsIgnoreCase(mode)) {
+            return false;
+        }
+        LocalDate today = LocalDate.now();
+        if (startDay.isBefore(today.minusDays(retentionDays - 1))) {
+            return false;
+        }
+        try {
+            if (trackingSince == null) {
+                trackingSince = redisActivityUtil.getTrackingSince();
+            }
+        } catch (Exception e) {
+            log.warn("Could not read active user tracking start: {}", e.getMessage());
+            return false;
+        }
+        return trackingSince != null && !startDay.isBefore(trackingSince);
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        if (date instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
@@ -0,0 +1,73 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.repository.AnalyticsRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incrementally folds the reading activity log into the daily, hourly and per-novel rollup tables.
+ * Each batch moves at most analytics.aggregation.batch-size reads out of the log in the same
+ * transaction that adds them to the rollups, so every read is counted exactly once whenever it commits.
+ */
+@Slf4j
+@Service
+public class AnalyticsRollupService {
+
+    @Autowired
+    private AnalyticsRollupRepository analyticsRollupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${analytics.aggregation.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${analytics.aggregation.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    /**
+     * Scheduled rollup of recorded reads
+     */
+    @Scheduled(fixedDelayString = "${analytics.aggregation.interval:300}",
+            initialDelayString = "${analytics.aggregation.interval:300}",
+            timeUnit = TimeUnit.SECONDS)
+    public void scheduledRollup() {
+        try {
+            int batches = rollup();
+            if (batches > 0) {
+                log.info("Rolled up {} batches of reading activity", batches);
+            }
+        } catch (Exception e) {
+            log.error("Error rolling up analytics: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Roll up batches until caught up or the per-run limit is reached
+     *
+     * @return number of batches rolled up
+     */
+    public int rollup() {
+        int batches = 0;
+        while (batches < maxBatchesPerRun && Boolean.TRUE.equals(transactionTemplate.execute(status -> rollupNextBatch()))) {
+            batches++;
+        }
+        return batches;
+    }
+
+    /**
+     * Move the next batch of reads into the rollups; runs inside a transaction
+     *
+     * @return true if a batch was processed
+     */
+    private boolean rollupNextBatch() {
+        analyticsRollupRepository.lock();
+        return analyticsRollupRepository.rollupNextBatch(batchSize) > 0;
+    }
+}
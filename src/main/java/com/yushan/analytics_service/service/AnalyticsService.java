@@ -1,5 +1,7 @@
 package com.yushan.analytics_service.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.yushan.analytics_service.client.ContentServiceClient;
 import com.yushan.analytics_service.client.EngagementServiceClient;
 import com.yushan.analytics_service.client.UserServiceClient;
@@ -13,14 +15,23 @@ import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
 import com.yushan.analytics_service.dto.PlatformStatisticsResponseDTO;
 import com.yushan.analytics_service.dto.ReadingActivityResponseDTO;
 import com.yushan.analytics_service.dto.TopContentResponseDTO;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.time.Duration;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Slf4j
 @Service
@@ -39,6 +50,31 @@ public class AnalyticsService {
     @Autowired
     private EngagementServiceClient engagementServiceClient;
 
+    @Autowired
+    private NovelCatalog novelCatalog;
+
+    @Autowired
+    private ActiveUserService activeUserService;
+
+    @Value("${analytics.overview.cache-ttl:30}")
+    private long overviewCacheTtlSeconds;
+
+    // Runs downstream calls that overlap with database queries; Spring Boot's task executor,
+    // on virtual threads when spring.threads.virtual.enabled is set and shut down with the context
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor downstreamExecutor;
+
+    // Platform overview by exact flag
+    private Cache<Boolean, PlatformStatisticsResponseDTO> platformStatistics;
+
+    @PostConstruct
+    public void init() {
+        platformStatistics = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(overviewCacheTtlSeconds))
+                .build();
+    }
+
     /**
      * Get user activity trends (based on reading history)
      */
@@ -164,56 +200,82 @@ public class AnalyticsService {
         response.setEndDate(endDate);
         response.setPeriod(request.getPeriod());
 
-        // Get metrics from local analytics database
-        Long activeUsers = analyticsRepository.getActiveUserCount(startDate, endDate);
-        Long uniqueNovels = analyticsRepository.getUniqueNovelsRead(startDate, endDate);
-        Long readingSessions = analyticsRepository.getTotalReadingSessions(startDate, endDate);
-
-        response.setActiveUsers(activeUsers);
-        response.setUniqueNovelsRead(uniqueNovels);
-        response.setTotalReadingSessions(readingSessions);
-
-        // Calculate growth rates
+        // Calculate the previous period for growth rates
         Calendar cal = Calendar.getInstance();
         cal.setTime(startDate);
         long daysDiff = (endDate.getTime() - startDate.getTime()) / (1000 * 60 * 60 * 24);
         cal.add(Calendar.DAY_OF_MONTH, -(int)daysDiff);
         Date previousStartDate = cal.getTime();
         Date previousEndDate = new Date(startDate.getTime() - 1);
-        
-        // User growth rate
-        Long previousActiveUsers = analyticsRepository.getActiveUserCount(previousStartDate, previousEndDate);
-        response.setUserGrowthRate(calculateGrowthRate(previousActiveUsers, activeUsers));
-        
-        // Novel growth rate
-        Long previousNovels = analyticsRepository.getUniqueNovelsRead(previousStartDate, previousEndDate);
-        response.setNovelGrowthRate(calculateGrowthRate(previousNovels, uniqueNovels));
-        
-        // Session growth rate
-        Long previousSessions = analyticsRepository.getTotalReadingSessions(previousStartDate, previousEndDate);
-        response.setSessionGrowthRate(calculateGrowthRate(previousSessions, readingSessions));
-
-        // Get engagement statistics from engagement service
-        ApiResponse<EngagementServiceClient.ModerationStatistics> stats = 
-                engagementServiceClient.getModerationStatistics();
-        if (stats != null && stats.getCode() != null && stats.getCode().equals(200) && stats.getData() != null) {
-            response.setTotalComments(stats.getData().totalComments);
-            // Reviews count would need a separate endpoint
-            response.setTotalReviews(0L);
-        } else {
-            response.setTotalComments(0L);
-            response.setTotalReviews(0L);
+
+        // Engagement statistics are fetched while the database computes both periods in one query
+        CompletableFuture<EngagementServiceClient.ModerationStatistics> moderation = fetchModerationStatisticsAsync();
+        AnalyticsSummaryResponseDTO.PeriodTotals totals =
+                analyticsRepository.getSummaryTotals(startDate, endDate, previousStartDate, previousEndDate);
+        if (totals == null) {
+            totals = new AnalyticsSummaryResponseDTO.PeriodTotals();
         }
 
+        response.setActiveUsers(totals.getActiveUsers());
+        response.setUniqueNovelsRead(totals.getUniqueNovelsRead());
+        response.setTotalReadingSessions(totals.getReadingSessions());
+        response.setUserGrowthRate(calculateGrowthRate(totals.getPreviousActiveUsers(), totals.getActiveUsers()));
+        response.setNovelGrowthRate(calculateGrowthRate(totals.getPreviousUniqueNovelsRead(), totals.getUniqueNovelsRead()));
+        response.setSessionGrowthRate(calculateGrowthRate(totals.getPreviousReadingSessions(), totals.getReadingSessions()));
+
+        EngagementServiceClient.ModerationStatistics stats = moderation.join();
+        response.setTotalComments(Objects.requireNonNullElse(stats != null ? stats.totalComments : null, 0L));
+        // Reviews count would need a separate endpoint
+        response.setTotalReviews(0L);
+
         response.setAverageRating(0.0); // Would need to aggregate from all novels
 
         return response;
     }
 
     /**
-     * Get platform-wide statistics overview
+     * Fetch moderation statistics from engagement service on a virtual thread, carrying the
+     * current request so the call is authenticated as the caller
+     *
+     * @return future of the statistics, completing with null if they could not be fetched
+     */
+    private CompletableFuture<EngagementServiceClient.ModerationStatistics> fetchModerationStatisticsAsync() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        return CompletableFuture.supplyAsync(() -> {
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            try {
+                ApiResponse<EngagementServiceClient.ModerationStatistics> stats =
+                        engagementServiceClient.getModerationStatistics();
+                if (stats != null && stats.getCode() != null && stats.getCode().equals(200) && stats.getData() != null) {
+                    return stats.getData();
+                }
+            } catch (Exception e) {
+                log.warn("Failed to fetch moderation statistics: {}", e.getMessage());
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+            return null;
+        }, downstreamExecutor);
+    }
+
+    /**
+     * Get platform-wide statistics overview.
+     * The approximate overview is polled by admin dashboards, so it is cached for
+     * analytics.overview.cache-ttl seconds; concurrent requests for an expired overview share one
+     * computation. Exact overviews are for audits and are always computed fresh.
+     *
+     * @param exact count active users exactly instead of from HyperLogLogs
      */
-    public PlatformStatisticsResponseDTO getPlatformStatistics() {
+    public PlatformStatisticsResponseDTO getPlatformStatistics(boolean exact) {
+        if (exact) {
+            return computePlatformStatistics(true);
+        }
+        return platformStatistics.get(false, this::computePlatformStatistics);
+    }
+
+    private PlatformStatisticsResponseDTO computePlatformStatistics(boolean exact) {
+        CompletableFuture<EngagementServiceClient.ModerationStatistics> moderation = fetchModerationStatisticsAsync();
+
         PlatformStatisticsResponseDTO response = new PlatformStatisticsResponseDTO();
         response.setTimestamp(new Date());
 
@@ -227,16 +289,14 @@ public class AnalyticsService {
         cal = Calendar.getInstance();
         cal.add(Calendar.MONTH, -1);
         Date monthStart = cal.getTime();
-        
-        Calendar yearCal = Calendar.getInstance();
-        yearCal.add(Calendar.YEAR, -100); // Very old date for "all time"
-        Date veryOldDate = yearCal.getTime();
 
         // Get activity statistics from local database
-        response.setDailyActiveUsers(analyticsRepository.getDailyActiveUsers(today));
-        response.setWeeklyActiveUsers(analyticsRepository.getWeeklyActiveUsers(weekStart, today));
-        response.setMonthlyActiveUsers(analyticsRepository.getMonthlyActiveUsers(monthStart, today));
-        response.setTotalReadingSessions(analyticsRepository.getTotalReadingSessions(veryOldDate, today));
+        PlatformStatisticsResponseDTO.ActivityTotals totals =
+                activeUserService.getPlatformActivityTotals(today, weekStart, monthStart, exact);
+        response.setDailyActiveUsers(totals.getDailyActiveUsers());
+        response.setWeeklyActiveUsers(totals.getWeeklyActiveUsers());
+        response.setMonthlyActiveUsers(totals.getMonthlyActiveUsers());
+        response.setTotalReadingSessions(totals.getTotalReadingSessions());
 
         // Get total novels from content service
         ApiResponse<Long> novelCountResponse = contentServiceClient.getNovelCount();
@@ -247,13 +307,8 @@ public class AnalyticsService {
         }
 
         // Get engagement statistics
-        ApiResponse<EngagementServiceClient.ModerationStatistics> stats = 
-                engagementServiceClient.getModerationStatistics();
-        if (stats != null && stats.getCode() != null && stats.getCode().equals(200) && stats.getData() != null) {
-            response.setTotalComments(stats.getData().totalComments);
-        } else {
-            response.setTotalComments(0L);
-        }
+        EngagementServiceClient.ModerationStatistics stats = moderation.join();
+        response.setTotalComments(Objects.requireNonNullElse(stats != null ? stats.totalComments : null, 0L));
 
         response.setTotalReviews(0L); // Would need dedicated endpoint
 
@@ -262,32 +317,34 @@ public class AnalyticsService {
 
     /**
      * Get daily active users with hourly breakdown
+     *
+     * @param exact count active users exactly instead of from HyperLogLogs
      */
-    public DailyActiveUsersResponseDTO getDailyActiveUsers(Date date) {
+    public DailyActiveUsersResponseDTO getDailyActiveUsers(Date date, boolean exact) {
         if (date == null) {
             date = new Date();
         }
 
         DailyActiveUsersResponseDTO response = new DailyActiveUsersResponseDTO();
         response.setDate(date);
-        response.setDau(analyticsRepository.getDailyActiveUsers(date));
+        response.setDau(activeUserService.countActiveUsers(date, date, exact));
 
         // Calculate weekly and monthly active users
         Calendar cal = Calendar.getInstance();
         cal.setTime(date);
         cal.add(Calendar.DATE, -7);
         Date weekStart = cal.getTime();
-        response.setWau(analyticsRepository.getWeeklyActiveUsers(weekStart, date));
+        response.setWau(activeUserService.countActiveUsers(weekStart, date, exact));
 
         cal = Calendar.getInstance();
         cal.setTime(date);
         cal.add(Calendar.MONTH, -1);
         Date monthStart = cal.getTime();
-        response.setMau(analyticsRepository.getMonthlyActiveUsers(monthStart, date));
+        response.setMau(activeUserService.countActiveUsers(monthStart, date, exact));
 
         // Get hourly breakdown
         List<DailyActiveUsersResponseDTO.ActivityDataPoint> hourlyData = 
-            analyticsRepository.getHourlyActiveUsers(date);
+            activeUserService.getHourlyActiveUsers(date, exact);
         response.setHourlyBreakdown(hourlyData);
 
         return response;
@@ -307,16 +364,12 @@ public class AnalyticsService {
         // Get most read novels from local database
         List<Integer> topNovelIds = analyticsRepository.getMostReadNovelIds(limit);
         
-        // Fetch novel details from content service
+        // Resolve novel details from the shared catalog, keeping read-count order
         List<TopContentResponseDTO.TopNovel> topNovels = Collections.emptyList();
         if (!topNovelIds.isEmpty()) {
-            ApiResponse<List<NovelDetailResponseDTO>> novelsResponse = 
-                contentServiceClient.getNovelsBatch(topNovelIds);
-            if (novelsResponse != null && novelsResponse.getCode() != null && novelsResponse.getCode().equals(200) && novelsResponse.getData() != null) {
-                topNovels = novelsResponse.getData().stream()
-                    .map(this::convertToTopNovel)
-                    .toList();
-            }
+            topNovels = novelCatalog.getNovels(topNovelIds).values().stream()
+                .map(this::convertToTopNovel)
+                .toList();
         }
         response.setTopNovels(topNovels);
 
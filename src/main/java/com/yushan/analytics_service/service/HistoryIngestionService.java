@@ -0,0 +1,237 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.dto.ChapterDTO;
+import com.yushan.analytics_service.entity.History;
+import com.yushan.analytics_service.exception.ResourceNotFoundException;
+import com.yushan.analytics_service.exception.ValidationException;
+import com.yushan.analytics_service.repository.HistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Entry point for reading-history writes.
+ * In "async" mode requests are validated against local caches, queued and written behind in
+ * batches with a multi-row upsert; in "sync" mode (or when the queue is full) they are written
+ * on the request thread by HistoryService. A batch that fails to write is retried with exponential
+ * backoff before anything else is drained, so while the database is down the queue fills up and
+ * requests fall back to synchronous writes instead of being accepted and lost.
+ */
+@Slf4j
+@Service
+public class HistoryIngestionService {
+
+    private static final String MODE_ASYNC = "async";
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private HistoryRepository historyRepository;
+
+    @Autowired
+    private RemoteEntityCache remoteEntityCache;
+
+    @Autowired
+    private NovelCatalog novelCatalog;
+
+    @Autowired
+    private ActiveUserService activeUserService;
+
+    @Autowired
+    private TrendingRankingService trendingRankingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${analytics.history.ingestion.mode:sync}")
+    private String mode;
+
+    @Value("${analytics.history.ingestion.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${analytics.history.ingestion.batch-size:500}")
+    private int batchSize;
+
+    @Value("${analytics.history.ingestion.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${analytics.history.ingestion.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    private BlockingQueue<History> queue;
+    private Counter writtenCounter;
+    private Counter droppedCounter;
+    private Counter overflowCounter;
+    private Counter retriedCounter;
+
+    // Batch whose write failed, retried before the queue is drained any further
+    private List<History> pending;
+    private int pendingAttempts;
+    private long nextRetryAt;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        meterRegistry.gauge("analytics.history.ingestion.queue.size", queue, BlockingQueue::size);
+        writtenCounter = meterRegistry.counter("analytics.history.ingestion.written");
+        droppedCounter = meterRegistry.counter("analytics.history.ingestion.dropped");
+        overflowCounter = meterRegistry.counter("analytics.history.ingestion.overflow");
+        retriedCounter = meterRegistry.counter("analytics.history.ingestion.retried");
+    }
+
+    /**
+     * Record that a user read a chapter
+     *
+     * @return true if the write was queued, false if it was written synchronously
+     */
+    public boolean submit(UUID userId, Integer novelId, Integer chapterId) {
+        if (!MODE_ASYNC.equalsIgnoreCase(mode)) {
+            historyService.addOrUpdateHistory(userId, novelId, chapterId);
+            return false;
+        }
+
+        validateUser(userId);
+        if (novelCatalog.getNovels(List.of(novelId)).isEmpty()) {
+            throw new ResourceNotFoundException("Novel not found with id: " + novelId);
+        }
+        validateChapter(novelId, chapterId);
+
+        History history = new History();
+        history.setUuid(UUID.randomUUID());
+        history.setUserId(userId);
+        history.setNovelId(novelId);
+        history.setChapterId(chapterId);
+        history.setUpdateTime(new Date());
+        if (queue.offer(history)) {
+            return true;
+        }
+
+        // Queue is full: apply backpressure by writing on the request thread
+        overflowCounter.increment();
+        historyService.addOrUpdateHistory(userId, novelId, chapterId);
+        return false;
+    }
+
+    /**
+     * Retry a failed batch once its backoff has passed, then drain the queue in batches and write them
+     */
+    @Scheduled(fixedDelayString = "${analytics.history.ingestion.flush-interval-ms:200}")
+    public synchronized void flush() {
+        if (pending != null && (System.currentTimeMillis() < nextRetryAt || !write(pending))) {
+            return;
+        }
+        List<History> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            if (!write(batch)) {
+                return;
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        nextRetryAt = 0;
+        flush();
+        if (pending != null || !queue.isEmpty()) {
+            int lost = (pending != null ? pending.size() : 0) + queue.size();
+            droppedCounter.increment(lost);
+            log.error("Dropping {} unwritten history records at shutdown", lost);
+        }
+    }
+
+    /**
+     * Write one batch, keeping it for a retry with exponential backoff if the write fails
+     *
+     * @return false if the batch is waiting for a retry
+     */
+    private boolean write(List<History> batch) {
+        try {
+            writeBatch(batch);
+        } catch (Exception e) {
+            int attempts = batch == pending ? pendingAttempts + 1 : 1;
+            if (attempts < maxAttempts) {
+                long backoff = retryBackoffMs << (attempts - 1);
+                retriedCounter.increment(batch.size());
+                log.warn("Failed to write {} history records (attempt {} of {}), retrying in {} ms: {}",
+                        batch.size(), attempts, maxAttempts, backoff, e.getMessage());
+                pending = batch;
+                pendingAttempts = attempts;
+                nextRetryAt = System.currentTimeMillis() + backoff;
+                return false;
+            }
+            droppedCounter.increment(batch.size());
+            log.error("Dropping {} history records after {} failed writes: {}", batch.size(), attempts, e.getMessage(), e);
+        }
+        pending = null;
+        pendingAttempts = 0;
+        return true;
+    }
+
+    /**
+     * Coalesce and upsert one batch of validated reads; every read is logged for the analytics rollups
+     *
+     * @return number of records written
+     */
+    int writeBatch(List<History> batch) {
+        // Consecutive chapter turns on the same novel collapse into the latest one
+        Map<String, History> latest = new LinkedHashMap<>();
+        for (History history : batch) {
+            latest.merge(history.getUserId() + ":" + history.getNovelId(), history,
+                    (current, next) -> next.getUpdateTime().before(current.getUpdateTime()) ? current : next);
+        }
+        List<History> valid = new ArrayList<>(latest.values());
+
+        int written = historyRepository.upsertBatch(valid, batch);
+        writtenCounter.increment(valid.size());
+        activeUserService.recordActivity(valid);
+        trendingRankingService.recordReads(valid);
+        return written;
+    }
+
+    /**
+     * Check through the entity cache that the chapter exists and belongs to the novel, as HistoryService does
+     */
+    private void validateChapter(Integer novelId, Integer chapterId) {
+        ChapterDTO chapter;
+        try {
+            chapter = remoteEntityCache.getChapters(List.of(chapterId)).get(chapterId);
+        } catch (Exception e) {
+            chapter = null;
+        }
+        if (chapter == null) {
+            throw new ResourceNotFoundException("Chapter not found with id: " + chapterId);
+        }
+        if (!novelId.equals(chapter.getNovelId())) {
+            throw new ValidationException("Chapter doesn't belong to novel id: " + novelId);
+        }
+    }
+
+    private void validateUser(UUID userId) {
+        boolean found;
+        try {
+            found = !remoteEntityCache.getUsers(List.of(userId)).isEmpty();
+        } catch (Exception e) {
+            found = false;
+        }
+        if (!found) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+    }
+}
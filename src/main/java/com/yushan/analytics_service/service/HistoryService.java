@@ -1,9 +1,6 @@
 package com.yushan.analytics_service.service;
 
-import com.yushan.analytics_service.client.ContentServiceClient;
-import com.yushan.analytics_service.client.UserServiceClient;
 import com.yushan.analytics_service.repository.HistoryRepository;
-import com.yushan.analytics_service.dto.ApiResponse;
 import com.yushan.analytics_service.dto.ChapterDTO;
 import com.yushan.analytics_service.dto.HistoryResponseDTO;
 import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
@@ -16,7 +13,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -29,28 +25,36 @@ public class HistoryService {
     private HistoryRepository historyRepository;
 
     @Autowired
-    private ContentServiceClient contentServiceClient;
+    private RemoteEntityCache remoteEntityCache;
 
     @Autowired
-    private UserServiceClient userServiceClient;
+    private LibraryService libraryService;
 
     @Autowired
-    private LibraryService libraryService;
+    private NovelCatalog novelCatalog;
+
+    @Autowired
+    private ActiveUserService activeUserService;
+
+    @Autowired
+    private TrendingRankingService trendingRankingService;
 
     /**
      * Add or update a viewing history record
      */
     @Transactional
     public void addOrUpdateHistory(UUID userId, Integer novelId, Integer chapterId) {
-        // Validate user exists via User Service
-        if (!userServiceClient.validateUser(userId)) {
+        // Validate user, novel and chapter through the entity cache
+        try {
+            if (remoteEntityCache.getUsers(List.of(userId)).isEmpty()) {
+                throw new ResourceNotFoundException("User not found with id: " + userId);
+            }
+        } catch (Exception e) {
             throw new ResourceNotFoundException("User not found with id: " + userId);
         }
 
-        // Validate novel exists via Content Service
         try {
-            ApiResponse<NovelDetailResponseDTO> novelResponse = contentServiceClient.getNovelById(novelId);
-            if (novelResponse == null || novelResponse.getCode() == null || !novelResponse.getCode().equals(200) || novelResponse.getData() == null) {
+            if (remoteEntityCache.getNovels(List.of(novelId)).isEmpty()) {
                 throw new ResourceNotFoundException("Novel not found with id: " + novelId);
             }
         } catch (Exception e) {
@@ -59,12 +63,10 @@ public class HistoryService {
 
         // Validate chapter exists and belongs to novel
         try {
-            ApiResponse<List<ChapterDTO>> chapterResponse = contentServiceClient.getChaptersBatch(java.util.List.of(chapterId));
-            if (chapterResponse == null || chapterResponse.getCode() == null || !chapterResponse.getCode().equals(200) || 
-                chapterResponse.getData() == null || chapterResponse.getData().isEmpty()) {
+            ChapterDTO chapter = remoteEntityCache.getChapters(List.of(chapterId)).get(chapterId);
+            if (chapter == null) {
                 throw new ResourceNotFoundException("Chapter not found with id: " + chapterId);
             }
-            ChapterDTO chapter = chapterResponse.getData().get(0);
             if (!chapter.getNovelId().equals(novelId)) {
                 throw new ValidationException("Chapter doesn't belong to novel id: " + novelId);
             }
@@ -73,25 +75,16 @@ public class HistoryService {
         } catch (Exception e) {
             throw new ResourceNotFoundException("Chapter not found with id: " + chapterId);
         }
-        History existingHistory = historyRepository.findByUserAndNovel(userId, novelId);
-
-        if (existingHistory != null) {
-            // Update existing record
-            existingHistory.setChapterId(chapterId);
-            existingHistory.setUpdateTime(new Date());
-            historyRepository.save(existingHistory);
-        } else {
-            // Create new record
-            History newHistory = new History();
-            newHistory.setUuid(UUID.randomUUID());
-            newHistory.setUserId(userId);
-            newHistory.setNovelId(novelId);
-            newHistory.setChapterId(chapterId);
-            Date now = new Date();
-            newHistory.setCreateTime(now);
-            newHistory.setUpdateTime(now);
-            historyRepository.save(newHistory);
-        }
+
+        // Insert or move the existing record to the new chapter in one round trip
+        History history = new History();
+        history.setUuid(UUID.randomUUID());
+        history.setUserId(userId);
+        history.setNovelId(novelId);
+        history.setChapterId(chapterId);
+        historyRepository.upsert(history);
+        activeUserService.recordActivity(userId);
+        trendingRankingService.recordReads(List.of(history));
     }
 
     /**
@@ -117,36 +110,12 @@ public class HistoryService {
                 .distinct()
                 .collect(Collectors.toList());
 
-        // Fetch data from Content Service
-        List<NovelDetailResponseDTO> novels = Collections.emptyList();
-        List<ChapterDTO> chapters = Collections.emptyList();
-        
-        try {
-            ApiResponse<List<NovelDetailResponseDTO>> novelResponse = contentServiceClient.getNovelsBatch(novelIds);
-            if (novelResponse != null && novelResponse.getCode() != null && novelResponse.getCode().equals(200) && novelResponse.getData() != null) {
-                novels = novelResponse.getData();
-            }
-        } catch (Exception e) {
-            // Log error but continue with empty list
-        }
-
-        try {
-            ApiResponse<List<ChapterDTO>> chapterResponse = contentServiceClient.getChaptersBatch(chapterIds);
-            if (chapterResponse != null && chapterResponse.getCode() != null && chapterResponse.getCode().equals(200) && chapterResponse.getData() != null) {
-                chapters = chapterResponse.getData();
-            }
-        } catch (Exception e) {
-            // Log error but continue with empty list
-        }
-
-        // Convert to maps for easy lookup
-        Map<Integer, NovelDetailResponseDTO> novelMap = novels.stream()
-                .collect(Collectors.toMap(NovelDetailResponseDTO::getId, n -> n));
-        Map<Integer, ChapterDTO> chapterMap = chapters.stream()
-                .collect(Collectors.toMap(ChapterDTO::getId, c -> c));
+        // Novels come from the shared catalog, chapters from the entity cache
+        Map<Integer, NovelDetailResponseDTO> novelMap = novelCatalog.getNovels(novelIds);
+        Map<Integer, ChapterDTO> chapterMap = getChapters(chapterIds);
 
         // Category names are already in NovelDetailResponseDTO, no need to fetch separately
-        Map<Integer, String> categoryMap = novels.stream()
+        Map<Integer, String> categoryMap = novelMap.values().stream()
                 .filter(n -> n.getCategoryId() != null && n.getCategoryName() != null)
                 .collect(Collectors.toMap(NovelDetailResponseDTO::getCategoryId, NovelDetailResponseDTO::getCategoryName, (a, b) -> a));
 
@@ -179,6 +148,15 @@ public class HistoryService {
         historyRepository.deleteByUserId(userId);
     }
 
+    private Map<Integer, ChapterDTO> getChapters(List<Integer> chapterIds) {
+        try {
+            return remoteEntityCache.getChapters(chapterIds);
+        } catch (Exception e) {
+            // Continue without chapter numbers
+            return Collections.emptyMap();
+        }
+    }
+
     private HistoryResponseDTO convertToRichDTO(
             History history,
             Map<Integer, NovelDetailResponseDTO> novelMap,
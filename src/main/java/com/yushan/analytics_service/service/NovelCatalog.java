@@ -0,0 +1,355 @@
+package com.yushan.analytics_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yushan.analytics_service.client.ContentServiceClient;
+import com.yushan.analytics_service.dto.ApiResponse;
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.dto.PageResponseDTO;
+import com.yushan.analytics_service.util.PageCrawler;
+import com.yushan.analytics_service.util.SingleFlight;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * In-process catalog of all novels known to content-service.
+ *
+ * Holds an immutable, versioned snapshot indexed by novel id, category id and author id.
+ * The snapshot is fully rebuilt by the ranking rebuild and kept current in between by an
+ * incremental refresh of recently updated novels, lifecycle events and on-demand lookups of
+ * missing novels, so ranking, analytics and history enrichment read local memory instead of
+ * calling content-service. Small changes only copy the indexes they touch.
+ * DTOs handed out by the catalog are shared between readers and must not be mutated.
+ */
+@Slf4j
+@Component
+public class NovelCatalog {
+
+    @Autowired
+    private ContentServiceClient contentServiceClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${analytics.crawl.concurrency:8}")
+    private int crawlConcurrency;
+
+    @Value("${analytics.catalog.miss-ttl:60}")
+    private long missTtlSeconds;
+
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 100; // 10000 novels
+    private static final int MAX_MISSES = 10000;
+
+    private final AtomicReference<NovelCatalogSnapshot> current = new AtomicReference<>(NovelCatalogSnapshot.empty());
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final AtomicLong lastRefreshDurationMs = new AtomicLong();
+
+    // Changes applied while full refreshes are crawling, replayed onto the crawled snapshot;
+    // guarded by the list itself, which also serializes snapshot swaps with apply
+    private final Set<List<Change>> refreshJournals = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Concurrent lookups of the same missing novels share one batch call
+    private SingleFlight<List<Integer>, ApiResponse<List<NovelDetailResponseDTO>>> missCalls;
+
+    // Ids content-service did not return, so repeated lookups of unknown novels do not call it again
+    private Cache<Integer, Boolean> knownMisses;
+
+    @PostConstruct
+    public void registerMetrics() {
+        missCalls = new SingleFlight<>("content.getNovelsBatch.catalog", meterRegistry);
+        knownMisses = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(missTtlSeconds))
+                .maximumSize(MAX_MISSES)
+                .build();
+        Gauge.builder("analytics.catalog.snapshot.size", current, ref -> ref.get().size())
+                .description("Number of novels in the current catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("analytics.catalog.snapshot.age", current,
+                        ref -> ref.get().getVersion() == 0 ? 0
+                                : (System.currentTimeMillis() - ref.get().getCreatedAtMillis()) / 1000.0)
+                .description("Seconds since the current catalog snapshot was built")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("analytics.catalog.refresh.duration", lastRefreshDurationMs, AtomicLong::get)
+                .description("Duration of the last full catalog refresh")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("analytics.catalog.snapshot.version", current, ref -> ref.get().getVersion())
+                .description("Version of the current catalog snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Current snapshot; never null
+     */
+    public NovelCatalogSnapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Get a single novel from the snapshot, or null if it is not known
+     */
+    public NovelDetailResponseDTO getNovel(Integer novelId) {
+        return novelId != null ? current.get().get(novelId) : null;
+    }
+
+    /**
+     * Get novels by id. Novels missing from the snapshot are fetched with a single
+     * batch call and merged into a new snapshot version; ids content-service did not
+     * return are not looked up again for analytics.catalog.miss-ttl seconds.
+     *
+     * @return novels keyed by id, in the order of the requested ids
+     */
+    public Map<Integer, NovelDetailResponseDTO> getNovels(Collection<Integer> novelIds) {
+        NovelCatalogSnapshot snapshot = current.get();
+        Map<Integer, NovelDetailResponseDTO> result = new LinkedHashMap<>();
+        List<Integer> misses = new ArrayList<>();
+        for (Integer novelId : novelIds) {
+            if (novelId == null || result.containsKey(novelId)) {
+                continue;
+            }
+            NovelDetailResponseDTO novel = snapshot.get(novelId);
+            result.put(novelId, novel);
+            if (novel == null && knownMisses.getIfPresent(novelId) == null) {
+                misses.add(novelId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            List<NovelDetailResponseDTO> fetched = fetchNovelsBatch(misses);
+            for (NovelDetailResponseDTO novel : fetched) {
+                result.put(novel.getId(), novel);
+            }
+            upsert(fetched);
+        }
+
+        result.values().removeIf(Objects::isNull);
+        return result;
+    }
+
+    /**
+     * Novels in a category from the snapshot
+     */
+    public List<NovelDetailResponseDTO> getNovelsByCategory(Integer categoryId) {
+        return categoryId != null ? current.get().getByCategory(categoryId) : Collections.emptyList();
+    }
+
+    /**
+     * Novels written by an author from the snapshot
+     */
+    public List<NovelDetailResponseDTO> getNovelsByAuthor(UUID authorId) {
+        return authorId != null ? current.get().getByAuthor(authorId) : Collections.emptyList();
+    }
+
+    /**
+     * Merge new or updated novels into the catalog as a new snapshot version
+     */
+    public void upsert(Collection<NovelDetailResponseDTO> novels) {
+        apply(novels, Collections.emptyList());
+    }
+
+    /**
+     * Drop novels from the catalog as a new snapshot version
+     */
+    public void remove(Collection<Integer> novelIds) {
+        apply(Collections.emptyList(), novelIds);
+    }
+
+    /**
+     * Add or replace novels and drop novel ids in a single new snapshot version
+     */
+    public void apply(Collection<NovelDetailResponseDTO> upserts, Collection<Integer> removals) {
+        Collection<NovelDetailResponseDTO> added = upserts != null ? upserts : Collections.emptyList();
+        Collection<Integer> removed = removals != null ? removals : Collections.emptyList();
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        for (NovelDetailResponseDTO novel : added) {
+            if (novel != null && novel.getId() != null) {
+                knownMisses.invalidate(novel.getId());
+            }
+        }
+        synchronized (refreshJournals) {
+            current.updateAndGet(snapshot -> snapshot.merge(versionSequence.incrementAndGet(), added, removed));
+            if (!refreshJournals.isEmpty()) {
+                Change change = new Change(new ArrayList<>(added), new ArrayList<>(removed));
+                refreshJournals.forEach(journal -> journal.add(change));
+            }
+        }
+    }
+
+    /**
+     * Scheduled incremental refresh of the catalog. Full crawls only run with the ranking
+     * rebuild at startup and nightly, which also drops novels deleted without a lifecycle event.
+     */
+    @Scheduled(fixedDelayString = "${analytics.catalog.refresh-interval:300}",
+            initialDelayString = "${analytics.catalog.refresh-interval:300}",
+            timeUnit = TimeUnit.SECONDS)
+    public void scheduledRefresh() {
+        try {
+            refreshRecent();
+        } catch (Exception e) {
+            log.error("Error refreshing novel catalog: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fetch novels most recently updated first and merge in the ones that changed, stopping at
+     * the first page without changes. Does nothing until a full refresh has built the catalog.
+     *
+     * @return number of novels added or replaced
+     */
+    public int refreshRecent() {
+        if (current.get().getVersion() == 0) {
+            return 0;
+        }
+        List<NovelDetailResponseDTO> changed = new ArrayList<>();
+        for (int page = 0; page < MAX_PAGES; page++) {
+            PageResponseDTO<NovelDetailResponseDTO> pageData = fetchNovelsPage(page, "updateTime");
+            if (pageData == null || pageData.getContent() == null) {
+                break;
+            }
+            NovelCatalogSnapshot snapshot = current.get();
+            List<NovelDetailResponseDTO> pageChanges = pageData.getContent().stream()
+                    .filter(novel -> novel != null && novel.getId() != null && !novel.equals(snapshot.get(novel.getId())))
+                    .toList();
+            changed.addAll(pageChanges);
+            if (pageChanges.isEmpty() || !pageData.isHasNext()) {
+                break;
+            }
+        }
+        upsert(changed);
+        log.debug("Novel catalog merged {} recently updated novels", changed.size());
+        return changed.size();
+    }
+
+    /**
+     * Crawl all novels from content service and atomically swap in a new snapshot.
+     * Changes applied while the crawl was running are replayed onto it, so they are not lost
+     * to the older crawl results. If the crawl returns nothing the current snapshot is kept.
+     *
+     * @return the snapshot in effect after the refresh
+     */
+    public NovelCatalogSnapshot refresh() {
+        long start = System.currentTimeMillis();
+        List<Change> journal = new ArrayList<>();
+        synchronized (refreshJournals) {
+            refreshJournals.add(journal);
+        }
+        List<NovelDetailResponseDTO> allNovels;
+        try {
+            allNovels = crawlAllNovels();
+        } catch (RuntimeException e) {
+            synchronized (refreshJournals) {
+                refreshJournals.remove(journal);
+            }
+            throw e;
+        }
+
+        NovelCatalogSnapshot snapshot;
+        synchronized (refreshJournals) {
+            refreshJournals.remove(journal);
+            if (allNovels.isEmpty()) {
+                log.warn("Novel catalog refresh fetched no novels, keeping snapshot version {}", current.get().getVersion());
+                return current.get();
+            }
+            Map<Integer, NovelDetailResponseDTO> byId = new LinkedHashMap<>();
+            for (NovelDetailResponseDTO novel : allNovels) {
+                if (novel != null && novel.getId() != null) {
+                    byId.put(novel.getId(), novel);
+                }
+            }
+            for (Change change : journal) {
+                change.applyTo(byId);
+            }
+            snapshot = NovelCatalogSnapshot.build(versionSequence.incrementAndGet(), System.currentTimeMillis(), byId.values());
+            current.set(snapshot);
+        }
+        lastRefreshDurationMs.set(System.currentTimeMillis() - start);
+        log.info("Novel catalog refreshed: version={}, novels={}, categories={}, took {} ms",
+                snapshot.getVersion(), snapshot.size(), snapshot.categoryCount(), lastRefreshDurationMs.get());
+        return snapshot;
+    }
+
+    /**
+     * Fetch all novels, crawling pages concurrently
+     * Note: content service has no bulk export endpoint, so this paginates through all novels
+     */
+    private List<NovelDetailResponseDTO> crawlAllNovels() {
+        List<NovelDetailResponseDTO> allNovels = new ArrayList<>();
+        PageCrawler.crawl("novels", page -> fetchNovelsPage(page, "createTime"), Function.identity(), MAX_PAGES, crawlConcurrency)
+                .forEach(allNovels::addAll);
+        log.info("Fetched {} novels for catalog", allNovels.size());
+        return allNovels;
+    }
+
+    private PageResponseDTO<NovelDetailResponseDTO> fetchNovelsPage(int page, String sort) {
+        ApiResponse<PageResponseDTO<NovelDetailResponseDTO>> response =
+                contentServiceClient.getNovels(page, PAGE_SIZE, sort, "desc");
+        if (response == null || response.getCode() == null || !response.getCode().equals(200) || response.getData() == null) {
+            log.warn("Failed to fetch novels page {} for catalog", page);
+            return null;
+        }
+        return response.getData();
+    }
+
+    private List<NovelDetailResponseDTO> fetchNovelsBatch(List<Integer> novelIds) {
+        try {
+            ApiResponse<List<NovelDetailResponseDTO>> response = missCalls.execute(
+                    novelIds.stream().sorted().toList(), () -> contentServiceClient.getNovelsBatch(novelIds));
+            if (response == null || response.getCode() == null || !response.getCode().equals(200) || response.getData() == null) {
+                log.warn("Failed to fetch {} novels missing from catalog", novelIds.size());
+                return Collections.emptyList();
+            }
+            List<NovelDetailResponseDTO> found = response.getData().stream()
+                    .filter(novel -> novel.getId() != null)
+                    .toList();
+            Set<Integer> foundIds = new HashSet<>();
+            found.forEach(novel -> foundIds.add(novel.getId()));
+            novelIds.stream().filter(novelId -> !foundIds.contains(novelId))
+                    .forEach(novelId -> knownMisses.put(novelId, Boolean.TRUE));
+            return found;
+        } catch (Exception e) {
+            log.warn("Error fetching {} novels missing from catalog: {}", novelIds.size(), e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Novels added or replaced and ids removed by one {@link #apply} call
+     */
+    private record Change(List<NovelDetailResponseDTO> upserts, List<Integer> removals) {
+        void applyTo(Map<Integer, NovelDetailResponseDTO> byId) {
+            for (NovelDetailResponseDTO novel : upserts) {
+                if (novel != null && novel.getId() != null) {
+                    byId.put(novel.getId(), novel);
+                }
+            }
+            removals.forEach(byId::remove);
+        }
+    }
+}
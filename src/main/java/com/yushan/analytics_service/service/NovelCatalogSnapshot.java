@@ -0,0 +1,244 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Immutable catalog snapshot.
+ * Novel and category lookups use sorted int arrays with binary search, so reads
+ * do not box keys; author lookups are keyed by UUID.
+ */
+public final class NovelCatalogSnapshot {
+    private static final NovelCatalogSnapshot EMPTY = new NovelCatalogSnapshot(0, 0, new int[0], new NovelDetailResponseDTO[0],
+            new int[0], Collections.emptyList(), Collections.emptyMap());
+
+    private final long version;
+    private final long createdAtMillis;
+    private final int[] ids;
+    private final NovelDetailResponseDTO[] novels;
+    private final int[] categoryIds;
+    private final List<List<NovelDetailResponseDTO>> novelsByCategory;
+    private final Map<UUID, List<NovelDetailResponseDTO>> novelsByAuthor;
+
+    private NovelCatalogSnapshot(long version, long createdAtMillis, int[] ids, NovelDetailResponseDTO[] novels,
+                     int[] categoryIds, List<List<NovelDetailResponseDTO>> novelsByCategory,
+                     Map<UUID, List<NovelDetailResponseDTO>> novelsByAuthor) {
+        this.version = version;
+        this.createdAtMillis = createdAtMillis;
+        this.ids = ids;
+        this.novels = novels;
+        this.categoryIds = categoryIds;
+        this.novelsByCategory = novelsByCategory;
+        this.novelsByAuthor = novelsByAuthor;
+    }
+
+    static NovelCatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    static NovelCatalogSnapshot build(long version, long createdAtMillis, Collection<NovelDetailResponseDTO> source) {
+        TreeMap<Integer, NovelDetailResponseDTO> byId = new TreeMap<>();
+        for (NovelDetailResponseDTO novel : source) {
+            if (novel != null && novel.getId() != null) {
+                byId.put(novel.getId(), novel);
+            }
+        }
+
+        int[] ids = new int[byId.size()];
+        NovelDetailResponseDTO[] novels = new NovelDetailResponseDTO[byId.size()];
+        TreeMap<Integer, List<NovelDetailResponseDTO>> byCategory = new TreeMap<>();
+        Map<UUID, List<NovelDetailResponseDTO>> byAuthor = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<Integer, NovelDetailResponseDTO> entry : byId.entrySet()) {
+            NovelDetailResponseDTO novel = entry.getValue();
+            ids[i] = entry.getKey();
+            novels[i] = novel;
+            i++;
+            if (novel.getCategoryId() != null) {
+                byCategory.computeIfAbsent(novel.getCategoryId(), k -> new ArrayList<>()).add(novel);
+            }
+            if (novel.getAuthorId() != null) {
+                byAuthor.computeIfAbsent(novel.getAuthorId(), k -> new ArrayList<>()).add(novel);
+            }
+        }
+
+        int[] categoryIds = new int[byCategory.size()];
+        List<List<NovelDetailResponseDTO>> novelsByCategory = new ArrayList<>(byCategory.size());
+        int c = 0;
+        for (Map.Entry<Integer, List<NovelDetailResponseDTO>> entry : byCategory.entrySet()) {
+            categoryIds[c++] = entry.getKey();
+            novelsByCategory.add(Collections.unmodifiableList(entry.getValue()));
+        }
+        byAuthor.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+        return new NovelCatalogSnapshot(version, createdAtMillis, ids, novels, categoryIds,
+                Collections.unmodifiableList(novelsByCategory), Collections.unmodifiableMap(byAuthor));
+    }
+
+    /**
+     * New snapshot with the given novels added or replaced and the given ids removed.
+     * The id arrays are merged with the sorted changes in one pass, and only the category
+     * and author lists containing a changed novel are rebuilt; the others are shared.
+     */
+    NovelCatalogSnapshot merge(long newVersion, Collection<NovelDetailResponseDTO> upserts, Collection<Integer> removals) {
+        // Latest change per id, null for removals
+        TreeMap<Integer, NovelDetailResponseDTO> changes = new TreeMap<>();
+        for (NovelDetailResponseDTO novel : upserts) {
+            if (novel != null && novel.getId() != null) {
+                changes.put(novel.getId(), novel);
+            }
+        }
+        for (Integer novelId : removals) {
+            if (novelId != null) {
+                changes.put(novelId, null);
+            }
+        }
+
+        int[] mergedIds = new int[ids.length + changes.size()];
+        NovelDetailResponseDTO[] mergedNovels = new NovelDetailResponseDTO[mergedIds.length];
+        Set<Integer> affectedCategories = new HashSet<>();
+        Set<UUID> affectedAuthors = new HashSet<>();
+        int from = 0;
+        int to = 0;
+        for (Map.Entry<Integer, NovelDetailResponseDTO> change : changes.entrySet()) {
+            int novelId = change.getKey();
+            int index = Arrays.binarySearch(ids, from, ids.length, novelId);
+            int end = index >= 0 ? index : -index - 1;
+            System.arraycopy(ids, from, mergedIds, to, end - from);
+            System.arraycopy(novels, from, mergedNovels, to, end - from);
+            to += end - from;
+            from = end;
+            if (index >= 0) {
+                addGroups(novels[index], affectedCategories, affectedAuthors);
+                from++;
+            }
+            if (change.getValue() != null) {
+                mergedIds[to] = novelId;
+                mergedNovels[to++] = change.getValue();
+                addGroups(change.getValue(), affectedCategories, affectedAuthors);
+            }
+        }
+        System.arraycopy(ids, from, mergedIds, to, ids.length - from);
+        System.arraycopy(novels, from, mergedNovels, to, ids.length - from);
+        to += ids.length - from;
+
+        TreeMap<Integer, List<NovelDetailResponseDTO>> byCategory = new TreeMap<>();
+        for (int i = 0; i < categoryIds.length; i++) {
+            byCategory.put(categoryIds[i], novelsByCategory.get(i));
+        }
+        Map<UUID, List<NovelDetailResponseDTO>> byAuthor = new HashMap<>(novelsByAuthor);
+        for (Integer categoryId : affectedCategories) {
+            replaceGroup(byCategory, categoryId, changes, novel -> categoryId.equals(novel.getCategoryId()));
+        }
+        for (UUID authorId : affectedAuthors) {
+            replaceGroup(byAuthor, authorId, changes, novel -> authorId.equals(novel.getAuthorId()));
+        }
+
+        int[] mergedCategoryIds = new int[byCategory.size()];
+        int c = 0;
+        for (Integer categoryId : byCategory.keySet()) {
+            mergedCategoryIds[c++] = categoryId;
+        }
+        return new NovelCatalogSnapshot(newVersion, System.currentTimeMillis(), Arrays.copyOf(mergedIds, to),
+                Arrays.copyOf(mergedNovels, to), mergedCategoryIds,
+                Collections.unmodifiableList(new ArrayList<>(byCategory.values())),
+                Collections.unmodifiableMap(byAuthor));
+    }
+
+    private static void addGroups(NovelDetailResponseDTO novel, Set<Integer> categories, Set<UUID> authors) {
+        if (novel.getCategoryId() != null) {
+            categories.add(novel.getCategoryId());
+        }
+        if (novel.getAuthorId() != null) {
+            authors.add(novel.getAuthorId());
+        }
+    }
+
+    /**
+     * Rebuild one category or author list with the changed novels taken out and their new
+     * versions that belong to the group put back, in id order
+     */
+    private static <K> void replaceGroup(Map<K, List<NovelDetailResponseDTO>> groups, K key,
+                                         Map<Integer, NovelDetailResponseDTO> changes,
+                                         Predicate<NovelDetailResponseDTO> belongs) {
+        List<NovelDetailResponseDTO> group = new ArrayList<>();
+        for (NovelDetailResponseDTO novel : groups.getOrDefault(key, Collections.emptyList())) {
+            if (!changes.containsKey(novel.getId())) {
+                group.add(novel);
+            }
+        }
+        for (NovelDetailResponseDTO novel : changes.values()) {
+            if (novel != null && belongs.test(novel)) {
+                group.add(novel);
+            }
+        }
+        group.sort(Comparator.comparing(NovelDetailResponseDTO::getId));
+        if (group.isEmpty()) {
+            groups.remove(key);
+        } else {
+            groups.put(key, Collections.unmodifiableList(group));
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int categoryCount() {
+        return categoryIds.length;
+    }
+
+    public NovelDetailResponseDTO get(int novelId) {
+        int index = Arrays.binarySearch(ids, novelId);
+        return index >= 0 ? novels[index] : null;
+    }
+
+    public List<NovelDetailResponseDTO> getByCategory(int categoryId) {
+        int index = Arrays.binarySearch(categoryIds, categoryId);
+        return index >= 0 ? novelsByCategory.get(index) : Collections.emptyList();
+    }
+
+    public List<NovelDetailResponseDTO> getByAuthor(UUID authorId) {
+        return novelsByAuthor.getOrDefault(authorId, Collections.emptyList());
+    }
+
+    /**
+     * All novels ordered by id
+     */
+    public List<NovelDetailResponseDTO> getNovels() {
+        return Collections.unmodifiableList(Arrays.asList(novels));
+    }
+
+    /**
+     * Novels grouped by category id
+     */
+    public Map<Integer, List<NovelDetailResponseDTO>> getNovelsByCategory() {
+        Map<Integer, List<NovelDetailResponseDTO>> grouped = new LinkedHashMap<>();
+        for (int i = 0; i < categoryIds.length; i++) {
+            grouped.put(categoryIds[i], novelsByCategory.get(i));
+        }
+        return grouped;
+    }
+}
@@ -0,0 +1,223 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.dto.NovelEngagementEventDTO;
+import com.yushan.analytics_service.dto.NovelLifecycleEventDTO;
+import com.yushan.analytics_service.dto.UserExpEventDTO;
+import com.yushan.analytics_service.enums.NovelEngagementType;
+import com.yushan.analytics_service.enums.NovelLifecycleType;
+import com.yushan.analytics_service.util.RedisRankingUtil;
+import com.yushan.analytics_service.util.RedisRankingUtil.RankingUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_AUTHOR_NOVEL_NUM;
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_AUTHOR_VIEW;
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_AUTHOR_VOTE;
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_NOVEL_VIEW_ALL;
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_NOVEL_VIEW_CATE_PREFIX;
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_NOVEL_VOTE_ALL;
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_NOVEL_VOTE_CATE_PREFIX;
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_USER_EXP;
+
+/**
+ * Applies engagement, lifecycle and exp events to the ranking sorted sets between full rebuilds.
+ * Every event becomes one RankingUpdate that is applied at most once per event id.
+ */
+@Slf4j
+@Service
+public class RankingEventService {
+
+    @Autowired
+    private NovelCatalog novelCatalog;
+
+    @Autowired
+    private RedisRankingUtil redisRankingUtil;
+
+    @Autowired
+    private TrendingRankingService trendingRankingService;
+
+    @Value("${analytics.ranking.events.dedup-ttl:86400}")
+    private long dedupTtlSeconds;
+
+    /**
+     * Apply a batch of novel view/vote events as score increments
+     *
+     * @return number of events applied (duplicates excluded)
+     */
+    public int applyEngagementEvents(List<NovelEngagementEventDTO> events) {
+        List<NovelEngagementEventDTO> valid = events.stream()
+                .filter(event -> event.getEventId() != null && event.getNovelId() != null && event.getType() != null)
+                .toList();
+        if (valid.isEmpty()) {
+            return 0;
+        }
+
+        // Resolve category and author for the whole batch with a single catalog lookup
+        List<Integer> unresolved = valid.stream()
+                .filter(event -> event.getCategoryId() == null || event.getAuthorId() == null)
+                .map(NovelEngagementEventDTO::getNovelId)
+                .distinct()
+                .toList();
+        Map<Integer, NovelDetailResponseDTO> novels = novelCatalog.getNovels(unresolved);
+
+        // Today's trending buckets are updated by the same script, so they are deduplicated too
+        LocalDate today = LocalDate.now();
+        boolean bucketViews = trendingRankingService.isEventViewSource();
+        List<RankingUpdate> updates = new ArrayList<>(valid.size());
+        for (NovelEngagementEventDTO event : valid) {
+            NovelDetailResponseDTO novel = novels.get(event.getNovelId());
+            Integer categoryId = event.getCategoryId() != null ? event.getCategoryId()
+                    : novel != null ? novel.getCategoryId() : null;
+            UUID authorId = event.getAuthorId() != null ? event.getAuthorId()
+                    : novel != null ? novel.getAuthorId() : null;
+            double delta = event.getDelta() != null ? event.getDelta().doubleValue() : 1;
+            boolean view = event.getType() == NovelEngagementType.VIEW;
+            String member = event.getNovelId().toString();
+
+            LocalDate bucketDay = !view || bucketViews ? today : null;
+
+            RankingUpdate update = new RankingUpdate(event.getEventId());
+            increment(update, view ? RANK_NOVEL_VIEW_ALL : RANK_NOVEL_VOTE_ALL, member, delta, bucketDay);
+            if (categoryId != null) {
+                increment(update, (view ? RANK_NOVEL_VIEW_CATE_PREFIX : RANK_NOVEL_VOTE_CATE_PREFIX) + categoryId,
+                        member, delta, bucketDay);
+            }
+            if (authorId != null) {
+                increment(update, view ? RANK_AUTHOR_VIEW : RANK_AUTHOR_VOTE, authorId.toString(), delta, bucketDay);
+            }
+            updates.add(update);
+        }
+        return apply(updates, "engagement");
+    }
+
+    /**
+     * Apply a batch of novel created/deleted events, keeping the novel catalog in step.
+     * Catalog changes are collected for the batch and applied once the ranking updates are written,
+     * so a batch retried after a Redis failure still sees the catalog it was first planned against.
+     *
+     * @return number of events applied (duplicates excluded)
+     */
+    public int applyLifecycleEvents(List<NovelLifecycleEventDTO> events) {
+        // Novel id to its state after the events so far in this batch; null once deleted
+        Map<Integer, NovelDetailResponseDTO> changes = new LinkedHashMap<>();
+        List<RankingUpdate> updates = new ArrayList<>(events.size());
+        for (NovelLifecycleEventDTO event : events) {
+            NovelDetailResponseDTO payload = event.getNovel();
+            if (event.getEventId() == null || event.getType() == null || payload == null || payload.getId() == null) {
+                continue;
+            }
+            NovelDetailResponseDTO known = changes.containsKey(payload.getId())
+                    ? changes.get(payload.getId()) : novelCatalog.getNovel(payload.getId());
+            if (event.getType() == NovelLifecycleType.CREATED) {
+                updates.add(novelCreated(event.getEventId(), payload, known != null));
+                changes.put(payload.getId(), payload);
+            } else {
+                updates.add(novelDeleted(event.getEventId(), known != null ? known : payload));
+                changes.put(payload.getId(), null);
+            }
+        }
+        int applied = apply(updates, "lifecycle");
+
+        List<NovelDetailResponseDTO> upserts = new ArrayList<>();
+        List<Integer> removals = new ArrayList<>();
+        changes.forEach((novelId, novel) -> {
+            if (novel != null) {
+                upserts.add(novel);
+            } else {
+                removals.add(novelId);
+            }
+        });
+        novelCatalog.apply(upserts, removals);
+        return applied;
+    }
+
+    /**
+     * Apply a batch of exp events; scores only move up so out-of-order events cannot regress a user
+     *
+     * @return number of events applied (duplicates excluded)
+     */
+    public int applyUserExpEvents(List<UserExpEventDTO> events) {
+        List<RankingUpdate> updates = events.stream()
+                .filter(event -> event.getEventId() != null && event.getUserId() != null
+                        && event.getLevel() != null && event.getCurrentExp() != null)
+                .map(event -> new RankingUpdate(event.getEventId()).addIfGreater(RANK_USER_EXP, event.getUserId(),
+                        RankingUpdateService.userExpScore(event.getLevel(), event.getCurrentExp())))
+                .toList();
+        return apply(updates, "user exp");
+    }
+
+    private RankingUpdate novelCreated(String eventId, NovelDetailResponseDTO novel, boolean alreadyRanked) {
+        String member = novel.getId().toString();
+        double views = novel.getViewCnt() != null ? novel.getViewCnt().doubleValue() : 0;
+        double votes = novel.getVoteCnt() != null ? novel.getVoteCnt().doubleValue() : 0;
+
+        RankingUpdate update = new RankingUpdate(eventId)
+                .add(RANK_NOVEL_VIEW_ALL, member, views)
+                .add(RANK_NOVEL_VOTE_ALL, member, votes);
+        if (novel.getCategoryId() != null) {
+            update.add(RANK_NOVEL_VIEW_CATE_PREFIX + novel.getCategoryId(), member, views)
+                    .add(RANK_NOVEL_VOTE_CATE_PREFIX + novel.getCategoryId(), member, votes);
+        }
+        // Author totals are only bumped for novels the rankings do not know yet
+        if (novel.getAuthorId() != null && !alreadyRanked) {
+            String author = novel.getAuthorId().toString();
+            update.incrementBy(RANK_AUTHOR_NOVEL_NUM, author, 1)
+                    .incrementBy(RANK_AUTHOR_VIEW, author, views)
+                    .incrementBy(RANK_AUTHOR_VOTE, author, votes);
+        }
+        return update;
+    }
+
+    private RankingUpdate novelDeleted(String eventId, NovelDetailResponseDTO novel) {
+        String member = novel.getId().toString();
+        List<String> rankingKeys = new ArrayList<>(List.of(RANK_NOVEL_VIEW_ALL, RANK_NOVEL_VOTE_ALL));
+        if (novel.getCategoryId() != null) {
+            rankingKeys.add(RANK_NOVEL_VIEW_CATE_PREFIX + novel.getCategoryId());
+            rankingKeys.add(RANK_NOVEL_VOTE_CATE_PREFIX + novel.getCategoryId());
+        }
+        // Drop the novel from the trending buckets and weekly/monthly rankings too, not just the overall ones
+        LocalDate today = LocalDate.now();
+        RankingUpdate update = new RankingUpdate(eventId);
+        for (String rankingKey : rankingKeys) {
+            update.remove(rankingKey, member);
+            TrendingRankingService.trendingKeys(rankingKey, today).forEach(key -> update.remove(key, member));
+        }
+        if (novel.getAuthorId() != null) {
+            String author = novel.getAuthorId().toString();
+            update.incrementBy(RANK_AUTHOR_NOVEL_NUM, author, -1)
+                    .incrementBy(RANK_AUTHOR_VIEW, author, novel.getViewCnt() != null ? -novel.getViewCnt() : 0)
+                    .incrementBy(RANK_AUTHOR_VOTE, author, novel.getVoteCnt() != null ? -novel.getVoteCnt() : 0);
+        }
+        return update;
+    }
+
+    /**
+     * Increment an overall ranking and, if bucketDay is set, its daily trending bucket
+     */
+    private static void increment(RankingUpdate update, String key, String member, double delta, LocalDate bucketDay) {
+        update.incrementBy(key, member, delta);
+        if (bucketDay != null) {
+            update.incrementBy(TrendingRankingService.bucketKey(key, bucketDay), member, delta);
+        }
+    }
+
+    private int apply(List<RankingUpdate> updates, String eventType) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        int applied = redisRankingUtil.applyRankingUpdates(updates, Duration.ofSeconds(dedupTtlSeconds));
+        log.debug("Applied {} of {} {} ranking events", applied, updates.size(), eventType);
+        return applied;
+    }
+}
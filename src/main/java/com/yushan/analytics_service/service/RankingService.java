@@ -1,109 +1,72 @@
 package com.yushan.analytics_service.service;
 
-import com.yushan.analytics_service.client.ContentServiceClient;
-import com.yushan.analytics_service.client.GamificationServiceClient;
-import com.yushan.analytics_service.client.UserServiceClient;
-import com.yushan.analytics_service.dto.ApiResponse;
 import com.yushan.analytics_service.dto.AuthorResponseDTO;
 import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
 import com.yushan.analytics_service.dto.NovelRankDTO;
 import com.yushan.analytics_service.dto.PageResponseDTO;
 import com.yushan.analytics_service.dto.UserProfileResponseDTO;
 import com.yushan.analytics_service.exception.ResourceNotFoundException;
+import com.yushan.analytics_service.exception.ValidationException;
+import com.yushan.analytics_service.util.RedisRankingUtil;
 import com.yushan.analytics_service.util.RedisUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class RankingService {
 
     @Autowired
-    private ContentServiceClient contentServiceClient;
+    private RemoteEntityCache remoteEntityCache;
 
     @Autowired
-    private UserServiceClient userServiceClient;
+    private UserProfileCache userProfileCache;
 
     @Autowired
-    private GamificationServiceClient gamificationServiceClient;
+    private RedisUtil redisUtil;
 
     @Autowired
-    private RedisUtil redisUtil;
+    private NovelCatalog novelCatalog;
+
+    @Autowired
+    private RedisRankingUtil redisRankingUtil;
+
+    // User and author rankings are published as top-N leaderboards; novel rankings page through every novel
+    private static final long MAX_RANKING_SIZE = 100;
+
+    @Value("${spring.kafka.enabled:false}")
+    private boolean rankingEventsEnabled;
+
+    @Value("${analytics.ranking.bulk-max-ids:500}")
+    private int maxBulkIds;
 
     /**
-     * Get novel ranking with pagination - fetches all novels and sorts by votes
+     * Get novel ranking with pagination - pages through the precomputed ranking ZSET
+     * for the requested sort type and hydrates only the novels on the page
      */
     public PageResponseDTO<NovelDetailResponseDTO> rankNovel(
             Integer page, Integer size, String sortType, Integer categoryId, String timeRange) {
         
-        log.info("Fetching novel ranking: page={}, size={}, sortType={}, categoryId={}", 
-                page, size, sortType, categoryId);
+        log.info("Fetching novel ranking: page={}, size={}, sortType={}, categoryId={}, timeRange={}", 
+                page, size, sortType, categoryId, timeRange);
         
+        String redisKey = rangeKey(buildNovelRedisKey(sortType, categoryId), timeRange);
         try {
-            // Fetch ALL novels from content service (paginate through all pages)
-            List<NovelDetailResponseDTO> allNovels = new ArrayList<>();
-            int fetchPage = 0;
-            int fetchSize = 100;
-            boolean hasMore = true;
-            
-            while (hasMore && fetchPage < 50) { // Limit to 50 pages for safety
-                ApiResponse<PageResponseDTO<NovelDetailResponseDTO>> response = 
-                        contentServiceClient.getNovels(fetchPage, fetchSize, "createTime", "desc");
-                
-                if (response == null || response.getCode() == null || !response.getCode().equals(200) || response.getData() == null) {
-                    log.warn("Failed to fetch novels page {}", fetchPage);
-                    break;
-                }
-                
-                PageResponseDTO<NovelDetailResponseDTO> pageData = response.getData();
-                if (pageData.getContent() == null || pageData.getContent().isEmpty()) {
-                    break;
-                }
-                
-                allNovels.addAll(pageData.getContent());
-                hasMore = pageData.isHasNext();
-                fetchPage++;
-            }
-            
-            log.info("Fetched {} total novels", allNovels.size());
-            
-            // Filter by category if specified
-            if (categoryId != null) {
-                allNovels = allNovels.stream()
-                        .filter(novel -> categoryId.equals(novel.getCategoryId()))
-                        .collect(Collectors.toList());
-            }
-            
-            // Sort by votes (voteCnt)
-            allNovels.sort(Comparator.comparing(NovelDetailResponseDTO::getVoteCnt,
-                    Comparator.nullsLast(Comparator.reverseOrder())));
-            
-            // Paginate the results
-            int totalElements = allNovels.size();
-            int start = page * size;
-            int end = Math.min(start + size, totalElements);
-            
-            if (start >= totalElements) {
-                return PageResponseDTO.of(Collections.emptyList(), totalElements, page, size);
-            }
-            
-            List<NovelDetailResponseDTO> paginatedNovels = allNovels.subList(start, end);
-            
-            return PageResponseDTO.of(paginatedNovels, totalElements, page, size);
-            
+            return getPaginatedRanking(page, size, redisKey, Long.MAX_VALUE, Integer::valueOf,
+                    novelCatalog::getNovels, null);
         } catch (Exception e) {
             log.error("Error fetching novel ranking: {}", e.getMessage(), e);
             return PageResponseDTO.of(Collections.emptyList(), 0, page, size);
@@ -111,142 +74,144 @@ public class RankingService {
     }
 
     /**
-     * Get the best rank for a novel across all ranking types
+     * Get the best rank for a novel across all ranking types.
+     * Every ranking the novel can appear in is checked against the live sorted sets in one
+     * pipelined batch, so the rank follows event updates and agrees with the ranking pages.
      */
     public NovelRankDTO getBestNovelRank(Integer novelId) {
-        // Verify novel exists
+        NovelDetailResponseDTO novel = findNovel(novelId);
         try {
-            ApiResponse<NovelDetailResponseDTO> response = contentServiceClient.getNovelById(novelId);
-            if (response == null || response.getCode() == null || !response.getCode().equals(200) || response.getData() == null) {
-                throw new ResourceNotFoundException("Novel not found, id: " + novelId);
-            }
-            NovelDetailResponseDTO novel = response.getData();
+            return bestNovelRanks(List.of(novelId), Map.of(novelId, novel)).get(0);
+        } catch (Exception e) {
+            log.error("Error getting best novel rank for novelId {}: {}", novelId, e.getMessage());
+            throw new ResourceNotFoundException("Novel not found, id: " + novelId);
+        }
+    }
+
+    /**
+     * Get the best ranks of several novels with a single pipelined batch against the live rankings
+     *
+     * @return best ranks in request order; novels without one are omitted
+     */
+    public List<NovelRankDTO> getBestNovelRanks(List<Integer> novelIds) {
+        if (novelIds == null || novelIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (novelIds.size() > maxBulkIds) {
+            throw new ValidationException("At most " + maxBulkIds + " novel ids can be requested at once");
+        }
 
-            NovelRankDTO bestRank = null;
+        List<Integer> distinctIds = novelIds.stream().filter(Objects::nonNull).distinct().toList();
+        // Novels unknown to the catalog are only looked up in the all-time rankings
+        Map<Integer, NovelDetailResponseDTO> novels = novelCatalog.getNovels(distinctIds);
+        return bestNovelRanks(distinctIds, novels).stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
 
-            // Check all-time views ranking
-            NovelRankDTO allViewsRank = getNovelRank(novelId, "view", null);
-            if (allViewsRank != null) {
-                bestRank = new NovelRankDTO(novelId, allViewsRank.getRank(), 
-                        allViewsRank.getScore(), "All-Time Views Ranking");
+    /**
+     * Get the ranks of several novels in one ranking with a single pipelined batch
+     *
+     * @return ranks in request order; novels not in the ranking are omitted
+     */
+    public List<NovelRankDTO> getNovelRanks(List<Integer> novelIds, String sortType, Integer categoryId, String timeRange) {
+        if (novelIds == null || novelIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (novelIds.size() > maxBulkIds) {
+            throw new ValidationException("At most " + maxBulkIds + " novel ids can be requested at once");
+        }
+
+        String redisKey = rangeKey(buildNovelRedisKey(sortType, categoryId), timeRange);
+        List<Integer> distinctIds = novelIds.stream().filter(Objects::nonNull).distinct().toList();
+        List<RedisRankingUtil.MemberRank> ranks = redisRankingUtil.reverseRanks(
+                distinctIds.stream().map(id -> Map.entry(redisKey, id.toString())).toList());
+
+        List<NovelRankDTO> result = new ArrayList<>(distinctIds.size());
+        for (int i = 0; i < distinctIds.size(); i++) {
+            RedisRankingUtil.MemberRank rank = ranks.get(i);
+            if (rank != null) {
+                result.add(new NovelRankDTO(distinctIds.get(i), rank.getRank() + 1, rank.getScore(), redisKey));
             }
+        }
+        return result;
+    }
 
-            // Check all-time votes ranking
-            NovelRankDTO allVotesRank = getNovelRank(novelId, "vote", null);
-            if (allVotesRank != null) {
-                if (bestRank == null || allVotesRank.getRank() < bestRank.getRank()) {
-                    bestRank = new NovelRankDTO(novelId, allVotesRank.getRank(), 
-                            allVotesRank.getScore(), "All-Time Votes Ranking");
-                }
+    /**
+     * Best rank of each novel across the all-time rankings and those of its category, looked up
+     * in one pipelined batch; ties keep the first ranking checked
+     *
+     * @return best ranks in the order of novelIds, null for novels without a rank
+     */
+    private List<NovelRankDTO> bestNovelRanks(List<Integer> novelIds, Map<Integer, NovelDetailResponseDTO> novels) {
+        List<Integer> lookupNovels = new ArrayList<>();
+        List<String> lookupNames = new ArrayList<>();
+        List<Map.Entry<String, String>> lookups = new ArrayList<>();
+        for (Integer novelId : novelIds) {
+            novelRankings(novels.get(novelId)).forEach((key, name) -> {
+                lookupNovels.add(novelId);
+                lookupNames.add(name);
+                lookups.add(Map.entry(key, novelId.toString()));
+            });
+        }
+        List<RedisRankingUtil.MemberRank> ranks = redisRankingUtil.reverseRanks(lookups);
+
+        Map<Integer, NovelRankDTO> best = new HashMap<>();
+        for (int i = 0; i < lookups.size(); i++) {
+            RedisRankingUtil.MemberRank rank = ranks.get(i);
+            NovelRankDTO current = best.get(lookupNovels.get(i));
+            if (rank != null && (current == null || rank.getRank() + 1 < current.getRank())) {
+                best.put(lookupNovels.get(i),
+                        new NovelRankDTO(lookupNovels.get(i), rank.getRank() + 1, rank.getScore(), lookupNames.get(i)));
             }
+        }
+        return novelIds.stream().map(best::get).toList();
+    }
 
-            // Check category-specific rankings
-            Integer categoryId = novel.getCategoryId();
-            if (categoryId != null && novel.getCategoryName() != null) {
-                NovelRankDTO categoryViewRank = getNovelRank(novelId, "view", categoryId);
-                if (categoryViewRank != null) {
-                    if (bestRank == null || categoryViewRank.getRank() < bestRank.getRank()) {
-                        bestRank = new NovelRankDTO(novelId, categoryViewRank.getRank(), 
-                                categoryViewRank.getScore(), novel.getCategoryName() + " Views Ranking");
-                    }
-                }
+    /**
+     * Ranking key to display name of the rankings a novel can appear in, in tie-break order
+     */
+    private Map<String, String> novelRankings(NovelDetailResponseDTO novel) {
+        Map<String, String> rankings = new LinkedHashMap<>();
+        rankings.put(buildNovelRedisKey("view", null), "All-Time Views Ranking");
+        rankings.put(buildNovelRedisKey("vote", null), "All-Time Votes Ranking");
+        if (novel != null && novel.getCategoryId() != null && novel.getCategoryName() != null) {
+            rankings.put(buildNovelRedisKey("view", novel.getCategoryId()), novel.getCategoryName() + " Views Ranking");
+            rankings.put(buildNovelRedisKey("vote", novel.getCategoryId()), novel.getCategoryName() + " Votes Ranking");
+        }
+        return rankings;
+    }
 
-                NovelRankDTO categoryVoteRank = getNovelRank(novelId, "vote", categoryId);
-                if (categoryVoteRank != null) {
-                    if (bestRank == null || categoryVoteRank.getRank() < bestRank.getRank()) {
-                        bestRank = new NovelRankDTO(novelId, categoryVoteRank.getRank(), 
-                                categoryVoteRank.getScore(), novel.getCategoryName() + " Votes Ranking");
-                    }
-                }
+    private NovelDetailResponseDTO findNovel(Integer novelId) {
+        NovelDetailResponseDTO novel = novelCatalog.getNovel(novelId);
+        if (novel != null) {
+            return novel;
+        }
+        try {
+            novel = remoteEntityCache.getNovels(List.of(novelId)).get(novelId);
+            if (novel != null) {
+                return novel;
             }
-
-            return bestRank;
         } catch (Exception e) {
-            log.error("Error getting best novel rank for novelId {}: {}", novelId, e.getMessage());
-            throw new ResourceNotFoundException("Novel not found, id: " + novelId);
+            log.error("Error getting novel {} for best rank: {}", novelId, e.getMessage());
         }
+        throw new ResourceNotFoundException("Novel not found, id: " + novelId);
     }
 
     /**
-     * Get user ranking with pagination - fetches users directly from user service
-     * and hardcodes level/exp for demonstration
+     * Get user ranking with pagination - pages through the exp ranking ZSET and hydrates
+     * only the users on the page, with level and exp decoded from their scores
      */
     public PageResponseDTO<UserProfileResponseDTO> rankUser(Integer page, Integer size, String timeRange) {
         log.info("Fetching user ranking: page={}, size={}", page, size);
         
         try {
-            // Fetch users from user service
-            ApiResponse<PageResponseDTO<UserProfileResponseDTO>> userResponse = 
-                    userServiceClient.getAllUsersForRanking(page, size, "createTime", "desc");
-            
-            if (userResponse == null || userResponse.getCode() == null || 
-                    !userResponse.getCode().equals(200) || userResponse.getData() == null) {
-                log.warn("Failed to fetch users for ranking");
-                return PageResponseDTO.of(Collections.emptyList(), 0, page, size);
-            }
-            
-            PageResponseDTO<UserProfileResponseDTO> pageData = userResponse.getData();
-            List<UserProfileResponseDTO> users = pageData.getContent();
-            
-            if (users == null || users.isEmpty()) {
-                return PageResponseDTO.of(Collections.emptyList(), 0, page, size);
-            }
-            
-            // Calculate the absolute position for hardcoding level/exp
-            int startPosition = page * size;
-            
-            // Hardcode level and exp for users based on their position
-            for (int i = 0; i < users.size(); i++) {
-                UserProfileResponseDTO user = users.get(i);
-                int absolutePosition = startPosition + i;
-                
-                // Hardcode levels and exp for users in decreasing order
-                if (absolutePosition < 3) {
-                    // First 3 users: Level 9, 3000+ exp
-                    user.setLevel(9);
-                    user.setCurrentExp(3000 + (2 - absolutePosition) * 100);
-                } else if (absolutePosition < 5) {
-                    // Next 2 users: Level 8, 2000+ exp
-                    user.setLevel(8);
-                    user.setCurrentExp(2000 + (4 - absolutePosition) * 100);
-                } else if (absolutePosition < 8) {
-                    // Next 3 users: Level 7, 1500+ exp
-                    user.setLevel(7);
-                    user.setCurrentExp(1500 + (7 - absolutePosition) * 100);
-                } else if (absolutePosition < 10) {
-                    // Next 2 users: Level 6, 1000+ exp
-                    user.setLevel(6);
-                    user.setCurrentExp(1000 + (9 - absolutePosition) * 100);
-                } else if (absolutePosition < 15) {
-                    // Positions 10-14: Level 5, 800+ exp
-                    user.setLevel(5);
-                    user.setCurrentExp(800 + (14 - absolutePosition) * 20);
-                } else if (absolutePosition < 20) {
-                    // Positions 15-19: Level 4, 600+ exp
-                    user.setLevel(4);
-                    user.setCurrentExp(600 + (19 - absolutePosition) * 20);
-                } else if (absolutePosition < 30) {
-                    // Positions 20-29: Level 3, 400+ exp
-                    user.setLevel(3);
-                    user.setCurrentExp(400 + (29 - absolutePosition) * 10);
-                } else if (absolutePosition < 50) {
-                    // Positions 30-49: Level 2, 200+ exp
-                    user.setLevel(2);
-                    user.setCurrentExp(200 + (49 - absolutePosition) * 5);
-                } else {
-                    // Positions 50+: Level 1, decreasing exp
-                    user.setLevel(1);
-                    user.setCurrentExp(Math.max(50, 200 - (absolutePosition - 50) * 2));
-                }
-            }
-            
-            return PageResponseDTO.of(
-                    users, 
-                    pageData.getTotalElements(), 
-                    page, 
-                    size
-            );
-            
+            return getPaginatedRanking(page, size, RankingUpdateService.RANK_USER_EXP, MAX_RANKING_SIZE, Function.identity(),
+                    userProfileCache::getProfiles,
+                    (user, score) -> {
+                        user.setLevel(RankingUpdateService.userLevel(score));
+                        user.setCurrentExp(RankingUpdateService.userExp(score));
+                    });
         } catch (Exception e) {
             log.error("Error fetching user ranking: {}", e.getMessage(), e);
             return PageResponseDTO.of(Collections.emptyList(), 0, page, size);
@@ -254,112 +219,52 @@ public class RankingService {
     }
 
     /**
-     * Get author ranking with pagination - aggregates novels by author and sorts by total votes
+     * Get author ranking with pagination - pages through the author ranking ZSET for the
+     * requested sort type and time range and hydrates only the authors on the page from the
+     * novel catalog's per-author index
      */
     public PageResponseDTO<AuthorResponseDTO> rankAuthor(Integer page, Integer size, String sortType, String timeRange) {
-        log.info("Fetching author ranking: page={}, size={}, sortType={}", page, size, sortType);
+        log.info("Fetching author ranking: page={}, size={}, sortType={}, timeRange={}", page, size, sortType, timeRange);
         
+        String baseKey = buildAuthorRedisKey(sortType);
+        // Novel counts have no time range
+        String redisKey = RankingUpdateService.RANK_AUTHOR_NOVEL_NUM.equals(baseKey)
+                ? baseKey : rangeKey(baseKey, timeRange);
         try {
-            // Fetch ALL novels from content service
-            List<NovelDetailResponseDTO> allNovels = new ArrayList<>();
-            int fetchPage = 0;
-            int fetchSize = 100;
-            boolean hasMore = true;
-            
-            while (hasMore && fetchPage < 50) {
-                ApiResponse<PageResponseDTO<NovelDetailResponseDTO>> response = 
-                        contentServiceClient.getNovels(fetchPage, fetchSize, "createTime", "desc");
-                
-                if (response == null || response.getCode() == null || !response.getCode().equals(200) || response.getData() == null) {
-                    log.warn("Failed to fetch novels page {}", fetchPage);
-                    break;
-                }
-                
-                PageResponseDTO<NovelDetailResponseDTO> pageData = response.getData();
-                if (pageData.getContent() == null || pageData.getContent().isEmpty()) {
-                    break;
-                }
-                
-                allNovels.addAll(pageData.getContent());
-                hasMore = pageData.isHasNext();
-                fetchPage++;
-            }
-            
-            log.info("Fetched {} total novels for author ranking", allNovels.size());
-            
-            // Aggregate by author
-            Map<String, AuthorStats> authorStatsMap = new HashMap<>();
-            for (NovelDetailResponseDTO novel : allNovels) {
-                if (novel.getAuthorId() == null) {
-                    continue;
-                }
-                
-                String authorId = novel.getAuthorId().toString();
-                AuthorStats stats = authorStatsMap.computeIfAbsent(authorId, k -> new AuthorStats());
-                stats.authorId = authorId;
-                stats.authorName = novel.getAuthorUsername();
-                stats.totalVotes += (novel.getVoteCnt() != null ? novel.getVoteCnt() : 0);
-                stats.totalViews += (novel.getViewCnt() != null ? novel.getViewCnt() : 0);
-                stats.novelCount++;
-            }
-            
-            // Convert to list and sort by votes
-            List<AuthorResponseDTO> authors = authorStatsMap.values().stream()
-                    .map(stats -> {
-                        AuthorResponseDTO dto = new AuthorResponseDTO();
-                        dto.setUuid(stats.authorId);
-                        dto.setUsername(stats.authorName);
-                        dto.setTotalVoteCnt(stats.totalVotes);
-                        dto.setTotalViewCnt(stats.totalViews);
-                        dto.setNovelNum(stats.novelCount);
-                        return dto;
-                    })
-                    .filter(Objects::nonNull)
-                    .sorted(Comparator.comparing(AuthorResponseDTO::getTotalVoteCnt).reversed())
-                    .collect(Collectors.toList());
-            
-            // Paginate
-            int totalElements = authors.size();
-            int start = page * size;
-            int end = Math.min(start + size, totalElements);
-            
-            if (start >= totalElements) {
-                return PageResponseDTO.of(Collections.emptyList(), totalElements, page, size);
-            }
-            
-            List<AuthorResponseDTO> paginatedAuthors = authors.subList(start, end);
-            
-            return PageResponseDTO.of(paginatedAuthors, totalElements, page, size);
-            
+            return getPaginatedRanking(page, size, redisKey, MAX_RANKING_SIZE, Function.identity(),
+                    this::getAuthors, null);
         } catch (Exception e) {
             log.error("Error fetching author ranking: {}", e.getMessage(), e);
             return PageResponseDTO.of(Collections.emptyList(), 0, page, size);
         }
     }
     
-    // Helper class for aggregating author stats
-    private static class AuthorStats {
-        String authorId;
-        String authorName;
-        int totalVotes;
-        int totalViews;
-        int novelCount;
-    }
-
     /**
-     * Get rank for a specific novel in a specific ranking
+     * Build author details with all-time totals from the catalog; authors without catalog novels are absent
      */
-    private NovelRankDTO getNovelRank(Integer novelId, String sortType, Integer categoryId) {
-        String redisKey = buildNovelRedisKey(sortType, categoryId);
-
-        Long rank = redisUtil.zReverseRank(redisKey, novelId.toString());
+    private Map<String, AuthorResponseDTO> getAuthors(List<String> authorIds) {
+        NovelCatalogSnapshot snapshot = novelCatalog.snapshot();
+        Map<String, AuthorResponseDTO> authors = new HashMap<>();
+        for (String authorId : authorIds) {
+            List<NovelDetailResponseDTO> novels;
+            try {
+                novels = snapshot.getByAuthor(UUID.fromString(authorId));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            if (novels.isEmpty()) {
+                continue;
+            }
 
-        if (rank == null) {
-            return null; // Novel not found in ranking
+            AuthorResponseDTO dto = new AuthorResponseDTO();
+            dto.setUuid(authorId);
+            dto.setUsername(novels.get(0).getAuthorUsername());
+            dto.setNovelNum(novels.size());
+            dto.setTotalViewCnt(novels.stream().mapToInt(novel -> novel.getViewCnt() != null ? novel.getViewCnt() : 0).sum());
+            dto.setTotalVoteCnt(novels.stream().mapToInt(novel -> novel.getVoteCnt() != null ? novel.getVoteCnt() : 0).sum());
+            authors.put(authorId, dto);
         }
-
-        Double score = redisUtil.zScore(redisKey, novelId.toString());
-        return new NovelRankDTO(novelId, rank + 1, score, redisKey);
+        return authors;
     }
 
     /**
@@ -371,41 +276,66 @@ public class RankingService {
     }
 
     /**
-     * Generic method to get paginated ranking
+     * Key of a ranking for the requested time range.
+     * Daily vote buckets are only filled by ranking events, so without the event consumers
+     * weekly and monthly vote rankings are rejected rather than served from the overall ranking.
      */
-    private <T> PageResponseDTO<T> getPaginatedRanking(int page, int size, String redisKey,
-                                                       Function<List<UUID>, List<T>> fetcher,
-                                                       Function<T, UUID> uuidExtractor) {
-        long offset = (long) page * size;
-
-        Long totalInRedis = redisUtil.zCard(redisKey);
-        long totalElements = totalInRedis != null ? Math.min(totalInRedis, 100) : 0;
+    private String rangeKey(String baseKey, String timeRange) {
+        String redisKey = TrendingRankingService.rangeKey(baseKey, timeRange);
+        boolean voteRanking = baseKey.startsWith("ranking:novel:vote:") || RankingUpdateService.RANK_AUTHOR_VOTE.equals(baseKey);
+        if (voteRanking && !rankingEventsEnabled && !redisKey.equals(baseKey)) {
+            throw new ValidationException("Weekly and monthly vote rankings are not available without ranking events");
+        }
+        return redisKey;
+    }
 
-        if (offset >= totalElements) {
-            return PageResponseDTO.of(Collections.emptyList(), totalElements, page, size);
+    /**
+     * Build Redis key for author ranking
+     */
+    private String buildAuthorRedisKey(String sortType) {
+        if ("novelNum".equalsIgnoreCase(sortType)) {
+            return RankingUpdateService.RANK_AUTHOR_NOVEL_NUM;
         }
+        return "view".equalsIgnoreCase(sortType) ? RankingUpdateService.RANK_AUTHOR_VIEW : RankingUpdateService.RANK_AUTHOR_VOTE;
+    }
 
-        Set<String> uuidsStr = redisUtil.zReverseRange(redisKey, offset, offset + size - 1);
-        if (uuidsStr == null || uuidsStr.isEmpty()) {
+    /**
+     * Generic method to get paginated ranking.
+     * Reads one page of the ranking ZSET (plus its size) in a single round trip and
+     * hydrates only the members on that page, preserving the ZSET order.
+     * Members ranked beyond maxSize are not served.
+     */
+    private <K, T> PageResponseDTO<T> getPaginatedRanking(int page, int size, String redisKey, long maxSize,
+                                                          Function<String, K> idParser,
+                                                          Function<List<K>, Map<K, T>> fetcher,
+                                                          BiConsumer<T, Double> scoreApplier) {
+        long offset = (long) page * size;
+        long end = Math.min(offset + size, maxSize) - 1;
+
+        RedisUtil.ZSetPage zSetPage = redisUtil.zReversePageWithScores(redisKey, offset, end);
+        long totalElements = Math.min(zSetPage.getTotal(), maxSize);
+
+        if (offset >= totalElements || zSetPage.getEntries().isEmpty()) {
             return PageResponseDTO.of(Collections.emptyList(), totalElements, page, size);
         }
 
-        List<UUID> orderedUuids = uuidsStr.stream()
-                .map(UUID::fromString)
-                .collect(Collectors.toList());
+        Map<K, Double> orderedScores = new LinkedHashMap<>();
+        zSetPage.getEntries().forEach((member, score) -> orderedScores.put(idParser.apply(member), score));
 
-        List<T> dtoList = fetcher.apply(orderedUuids);
+        Map<K, T> dtoMap = fetcher.apply(new ArrayList<>(orderedScores.keySet()));
 
-        Map<UUID, T> dtoMap = dtoList.stream()
-                .collect(Collectors.toMap(uuidExtractor, Function.identity()));
-
-        List<T> sortedDtoList = orderedUuids.stream()
-                .map(dtoMap::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<T> sortedDtoList = new ArrayList<>(orderedScores.size());
+        orderedScores.forEach((id, score) -> {
+            T dto = dtoMap.get(id);
+            if (dto != null) {
+                if (scoreApplier != null && score != null) {
+                    scoreApplier.accept(dto, score);
+                }
+                sortedDtoList.add(dto);
+            }
+        });
 
         return PageResponseDTO.of(sortedDtoList, totalElements, page, size);
     }
 
 }
-
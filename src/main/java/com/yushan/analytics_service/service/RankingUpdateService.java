@@ -1,31 +1,37 @@
 package com.yushan.analytics_service.service;
 
-import com.yushan.analytics_service.client.ContentServiceClient;
 import com.yushan.analytics_service.client.GamificationServiceClient;
 import com.yushan.analytics_service.client.UserServiceClient;
 import com.yushan.analytics_service.dto.ApiResponse;
 import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
 import com.yushan.analytics_service.dto.PageResponseDTO;
 import com.yushan.analytics_service.dto.UserProfileResponseDTO;
+import com.yushan.analytics_service.util.PageCrawler;
+import com.yushan.analytics_service.util.RedisRankingUtil;
 import com.yushan.analytics_service.util.RedisUtil;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
 public class RankingUpdateService {
 
     @Autowired
-    private ContentServiceClient contentServiceClient;
+    private NovelCatalog novelCatalog;
 
     @Autowired
     private UserServiceClient userServiceClient;
@@ -36,14 +42,27 @@ public class RankingUpdateService {
     @Autowired
     private RedisUtil redisUtil;
 
-    private static final String RANK_NOVEL_VIEW_ALL = "ranking:novel:view:all";
-    private static final String RANK_NOVEL_VOTE_ALL = "ranking:novel:vote:all";
-    private static final String RANK_NOVEL_VIEW_CATE_PREFIX = "ranking:novel:view:";
-    private static final String RANK_NOVEL_VOTE_CATE_PREFIX = "ranking:novel:vote:";
-    private static final String RANK_USER_EXP = "ranking:user:exp";
-    private static final String RANK_AUTHOR_VOTE = "ranking:author:vote";
-    private static final String RANK_AUTHOR_VIEW = "ranking:author:view";
-    private static final String RANK_AUTHOR_NOVEL_NUM = "ranking:author:novelNum";
+    @Autowired
+    private RedisRankingUtil redisRankingUtil;
+
+    @Value("${analytics.crawl.concurrency:8}")
+    private int crawlConcurrency;
+
+    static final String RANK_NOVEL_VIEW_ALL = "ranking:novel:view:all";
+    static final String RANK_NOVEL_VOTE_ALL = "ranking:novel:vote:all";
+    static final String RANK_NOVEL_VIEW_CATE_PREFIX = "ranking:novel:view:";
+    static final String RANK_NOVEL_VOTE_CATE_PREFIX = "ranking:novel:vote:";
+    static final String RANK_USER_EXP = "ranking:user:exp";
+    static final String RANK_AUTHOR_VOTE = "ranking:author:vote";
+    static final String RANK_AUTHOR_VIEW = "ranking:author:view";
+    static final String RANK_AUTHOR_NOVEL_NUM = "ranking:author:novelNum";
+    // Best-rank index written by earlier releases; best ranks are now read from the live rankings
+    static final String RANK_NOVEL_BEST = "ranking:novel:best";
+    // Users are crawled in pages of the gamification batch size, so each page is one stats batch
+    private static final int USER_PAGE_SIZE = 100;
+    private static final int MAX_USER_PAGES = 100;
+    // Only keys produced by this rebuild are eligible for stale-key cleanup
+    private static final Pattern NOVEL_RANKING_KEY = Pattern.compile("ranking:novel:(view|vote):(all|\\d+)");
 
     @PostConstruct
     public void runUpdateOnStartup() {
@@ -70,40 +89,20 @@ public class RankingUpdateService {
 
     /**
      * Update novel rankings in Redis
-     * Note: This requires pagination to fetch all novels since there's no batch endpoint
+     * Refreshes the shared novel catalog and rebuilds all novel and author rankings from it
      */
     public void updateNovelRankings() {
         log.info("Updating novel rankings");
         try {
-            // Fetch novels page by page
-            List<NovelDetailResponseDTO> allNovels = new java.util.ArrayList<>();
-            int page = 0;
-            int size = 100;
-            boolean hasMore = true;
-            
-            while (hasMore && page < 100) { // Limit to 100 pages (10000 novels) for safety
-                ApiResponse<PageResponseDTO<NovelDetailResponseDTO>> response = 
-                        contentServiceClient.getNovels(page, size, "createTime", "desc");
-                
-                if (response == null || response.getCode() == null || !response.getCode().equals(200) || response.getData() == null) {
-                    log.warn("Failed to fetch novels page {} for ranking", page);
-                    break;
-                }
-                
-                PageResponseDTO<NovelDetailResponseDTO> pageData = response.getData();
-                if (pageData.getContent() == null || pageData.getContent().isEmpty()) {
-                    break;
-                }
-                
-                allNovels.addAll(pageData.getContent());
-                hasMore = pageData.isHasNext();
-                page++;
+            NovelCatalogSnapshot snapshot = novelCatalog.refresh();
+            List<NovelDetailResponseDTO> allNovels = snapshot.getNovels();
+            if (allNovels.isEmpty()) {
+                log.warn("Novel catalog is empty, keeping existing novel rankings");
+                return;
             }
             
-            log.info("Fetched {} novels across {} pages", allNovels.size(), page);
-            
             // Aggregate author statistics while we have all novels
-            Map<UUID, AuthorStats> authorStatsMap = new java.util.HashMap<>();
+            Map<UUID, AuthorStats> authorStatsMap = new HashMap<>();
             for (NovelDetailResponseDTO novel : allNovels) {
                 if (novel.getAuthorId() != null) {
                     AuthorStats stats = authorStatsMap.computeIfAbsent(
@@ -119,42 +118,27 @@ public class RankingUpdateService {
             // Update author rankings
             updateAuthorRankingsFromStats(authorStatsMap);
             
-            // Group novels by category
-            Map<Integer, List<NovelDetailResponseDTO>> novelsByCategory = allNovels.stream()
-                    .filter(novel -> novel.getCategoryId() != null)
-                    .collect(Collectors.groupingBy(NovelDetailResponseDTO::getCategoryId));
+            // Novels grouped by category come precomputed with the snapshot
+            Map<Integer, List<NovelDetailResponseDTO>> novelsByCategory = snapshot.getNovelsByCategory();
 
-            // Clear old ranking keys
-            Set<String> oldKeys = redisUtil.keys("ranking:novel:*");
-            if (oldKeys != null && !oldKeys.isEmpty()) {
-                redisUtil.delete(oldKeys);
+            // Build every novel ranking in memory first
+            Map<String, Map<String, Double>> rankings = new LinkedHashMap<>();
+            addNovelScores(rankings, RANK_NOVEL_VIEW_ALL, RANK_NOVEL_VOTE_ALL, allNovels);
+            for (Map.Entry<Integer, List<NovelDetailResponseDTO>> entry : novelsByCategory.entrySet()) {
+                addNovelScores(rankings,
+                        RANK_NOVEL_VIEW_CATE_PREFIX + entry.getKey(),
+                        RANK_NOVEL_VOTE_CATE_PREFIX + entry.getKey(),
+                        entry.getValue());
             }
 
-            // Update all-novels rankings
-            for (NovelDetailResponseDTO novel : allNovels) {
-                if (novel.getViewCnt() != null) {
-                    redisUtil.zAdd(RANK_NOVEL_VIEW_ALL, novel.getId().toString(), novel.getViewCnt());
-                }
-                if (novel.getVoteCnt() != null) {
-                    redisUtil.zAdd(RANK_NOVEL_VOTE_ALL, novel.getId().toString(), novel.getVoteCnt());
-                }
-            }
+            // Rebuilt keys are swapped in atomically; category keys that are no longer produced are dropped
+            List<String> staleKeys = new ArrayList<>(redisUtil.keys("ranking:novel:*").stream()
+                    .filter(key -> NOVEL_RANKING_KEY.matcher(key).matches())
+                    .filter(key -> !rankings.containsKey(key))
+                    .toList());
+            staleKeys.add(RANK_NOVEL_BEST);
+            redisRankingUtil.replaceSortedSets(rankings, staleKeys);
 
-            // Update category-specific rankings
-            for (Map.Entry<Integer, List<NovelDetailResponseDTO>> entry : novelsByCategory.entrySet()) {
-                String viewKey = RANK_NOVEL_VIEW_CATE_PREFIX + entry.getKey();
-                String voteKey = RANK_NOVEL_VOTE_CATE_PREFIX + entry.getKey();
-                
-                for (NovelDetailResponseDTO novel : entry.getValue()) {
-                    if (novel.getViewCnt() != null) {
-                        redisUtil.zAdd(viewKey, novel.getId().toString(), novel.getViewCnt());
-                    }
-                    if (novel.getVoteCnt() != null) {
-                        redisUtil.zAdd(voteKey, novel.getId().toString(), novel.getVoteCnt());
-                    }
-                }
-            }
-            
             log.info("Updated rankings for {} novels across {} categories", 
                     allNovels.size(), novelsByCategory.size());
         } catch (Exception e) {
@@ -164,85 +148,45 @@ public class RankingUpdateService {
 
     /**
      * Update user rankings in Redis
-     * Fetches users from user service and their gamification stats
+     * Crawls users from user service concurrently, fetching each page's gamification stats as soon as
+     * the page arrives so the stats batches overlap with the rest of the crawl
      * Ranks by level first, then by currentExp
      */
     public void updateUserRankings() {
         log.info("Updating user rankings");
         try {
-            // Step 1: Fetch all users from user service (paginated)
-            List<String> allUserIds = new java.util.ArrayList<>();
-            int page = 0;
-            int size = 100;
-            boolean hasMore = true;
-            
-            while (hasMore && page < 100) { // Limit to 100 pages for safety
-                ApiResponse<PageResponseDTO<UserProfileResponseDTO>> userResponse = 
-                        userServiceClient.getAllUsersForRanking(page, size, "createTime", "desc");
-                
-                if (userResponse == null || userResponse.getCode() == null || 
-                        !userResponse.getCode().equals(200) || userResponse.getData() == null) {
-                    log.warn("Failed to fetch users page {} for ranking", page);
-                    break;
-                }
-                
-                PageResponseDTO<UserProfileResponseDTO> pageData = userResponse.getData();
-                if (pageData.getContent() == null || pageData.getContent().isEmpty()) {
-                    break;
-                }
-                
-                // Extract user IDs
-                for (UserProfileResponseDTO user : pageData.getContent()) {
-                    if (user.getUuid() != null) {
-                        allUserIds.add(user.getUuid());
-                    }
-                }
-                
-                hasMore = pageData.isHasNext();
-                page++;
-            }
-            
-            log.info("Fetched {} users across {} pages", allUserIds.size(), page);
-            
-            if (allUserIds.isEmpty()) {
+            // Steps 1 and 2: fetch all users page by page, and the gamification stats of each page
+            AtomicInteger userCount = new AtomicInteger();
+            List<GamificationServiceClient.GamificationStats> allStats = new ArrayList<>();
+            PageCrawler.crawl("users", this::fetchUsersPage, users -> {
+                List<String> userIds = users.stream()
+                        .map(UserProfileResponseDTO::getUuid)
+                        .filter(Objects::nonNull)
+                        .toList();
+                userCount.addAndGet(userIds.size());
+                return fetchGamificationStats(userIds);
+            }, MAX_USER_PAGES, crawlConcurrency).forEach(allStats::addAll);
+
+            log.info("Fetched gamification stats for {} of {} users", allStats.size(), userCount.get());
+
+            if (userCount.get() == 0) {
                 log.warn("No users found for ranking");
                 return;
             }
             
-            // Step 2: Fetch gamification stats in batches
-            List<GamificationServiceClient.GamificationStats> allStats = new java.util.ArrayList<>();
-            int batchSize = 100;
-            
-            for (int i = 0; i < allUserIds.size(); i += batchSize) {
-                int endIndex = Math.min(i + batchSize, allUserIds.size());
-                List<String> batch = allUserIds.subList(i, endIndex);
-                
-                try {
-                    ApiResponse<List<GamificationServiceClient.GamificationStats>> statsResponse = 
-                            gamificationServiceClient.getBatchUsersStats(batch);
-                    
-                    if (statsResponse != null && statsResponse.getCode() != null && 
-                            statsResponse.getCode().equals(200) && statsResponse.getData() != null) {
-                        allStats.addAll(statsResponse.getData());
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to fetch gamification stats for batch starting at index {}: {}", i, e.getMessage());
-                }
-            }
-            
-            log.info("Fetched gamification stats for {} users", allStats.size());
-            
-            // Clear old ranking key
-            redisUtil.delete(RANK_USER_EXP);
-            
             // Step 3: Update user rankings
             // Score = level * 1000000 + currentExp (to rank by level first, then exp)
+            Map<String, Double> userScores = new HashMap<>();
             for (GamificationServiceClient.GamificationStats stats : allStats) {
                 if (stats.userId != null && stats.level != null && stats.currentExp != null) {
-                    double score = (stats.level * 1000000.0) + stats.currentExp;
-                    redisUtil.zAdd(RANK_USER_EXP, stats.userId, score);
+                    userScores.put(stats.userId, userExpScore(stats.level, stats.currentExp));
                 }
             }
+            if (userScores.isEmpty()) {
+                log.warn("No gamification stats fetched, keeping existing user rankings");
+                return;
+            }
+            redisRankingUtil.replaceSortedSets(Map.of(RANK_USER_EXP, userScores), List.of());
             
             log.info("Updated rankings for {} users", allStats.size());
         } catch (Exception e) {
@@ -250,28 +194,99 @@ public class RankingUpdateService {
         }
     }
 
+    private PageResponseDTO<UserProfileResponseDTO> fetchUsersPage(int page) {
+        ApiResponse<PageResponseDTO<UserProfileResponseDTO>> userResponse =
+                userServiceClient.getAllUsersForRanking(page, USER_PAGE_SIZE, "createTime", "desc");
+        if (userResponse == null || userResponse.getCode() == null ||
+                !userResponse.getCode().equals(200) || userResponse.getData() == null) {
+            log.warn("Failed to fetch users page {} for ranking", page);
+            return null;
+        }
+        return userResponse.getData();
+    }
+
+    private List<GamificationServiceClient.GamificationStats> fetchGamificationStats(List<String> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        try {
+            ApiResponse<List<GamificationServiceClient.GamificationStats>> statsResponse =
+                    gamificationServiceClient.getBatchUsersStats(userIds);
+            if (statsResponse != null && statsResponse.getCode() != null &&
+                    statsResponse.getCode().equals(200) && statsResponse.getData() != null) {
+                return statsResponse.getData();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to fetch gamification stats for {} users: {}", userIds.size(), e.getMessage());
+        }
+        return List.of();
+    }
+
     /**
      * Update author rankings from aggregated novel statistics
      */
     private void updateAuthorRankingsFromStats(Map<UUID, AuthorStats> authorStatsMap) {
         log.info("Updating author rankings from novel statistics");
         
-        // Clear old ranking keys
-        redisUtil.delete(List.of(RANK_AUTHOR_VOTE, RANK_AUTHOR_VIEW, RANK_AUTHOR_NOVEL_NUM));
-        
-        // Update author rankings
+        Map<String, Double> votes = new HashMap<>();
+        Map<String, Double> views = new HashMap<>();
+        Map<String, Double> novelNums = new HashMap<>();
         for (Map.Entry<UUID, AuthorStats> entry : authorStatsMap.entrySet()) {
             String authorUuid = entry.getKey().toString();
             AuthorStats stats = entry.getValue();
-            
-            redisUtil.zAdd(RANK_AUTHOR_VOTE, authorUuid, stats.totalVotes);
-            redisUtil.zAdd(RANK_AUTHOR_VIEW, authorUuid, stats.totalViews);
-            redisUtil.zAdd(RANK_AUTHOR_NOVEL_NUM, authorUuid, stats.novelCount);
+
+            votes.put(authorUuid, (double) stats.totalVotes);
+            views.put(authorUuid, (double) stats.totalViews);
+            novelNums.put(authorUuid, (double) stats.novelCount);
         }
+
+        Map<String, Map<String, Double>> rankings = new LinkedHashMap<>();
+        rankings.put(RANK_AUTHOR_VOTE, votes);
+        rankings.put(RANK_AUTHOR_VIEW, views);
+        rankings.put(RANK_AUTHOR_NOVEL_NUM, novelNums);
+        redisRankingUtil.replaceSortedSets(rankings, List.of());
         
         log.info("Updated rankings for {} authors", authorStatsMap.size());
     }
 
+    /**
+     * Combined user ranking score, ranking by level first and then by exp
+     */
+    static double userExpScore(int level, int currentExp) {
+        return (level * 1000000.0) + currentExp;
+    }
+
+    /**
+     * Level encoded in a user ranking score
+     */
+    static int userLevel(double score) {
+        return (int) (score / 1000000.0);
+    }
+
+    /**
+     * Exp encoded in a user ranking score
+     */
+    static int userExp(double score) {
+        return (int) (score % 1000000.0);
+    }
+
+    /**
+     * Add view and vote scores of the given novels to the view and vote rankings being built
+     */
+    private void addNovelScores(Map<String, Map<String, Double>> rankings, String viewKey, String voteKey,
+                                List<NovelDetailResponseDTO> novels) {
+        Map<String, Double> views = rankings.computeIfAbsent(viewKey, k -> new HashMap<>());
+        Map<String, Double> votes = rankings.computeIfAbsent(voteKey, k -> new HashMap<>());
+        for (NovelDetailResponseDTO novel : novels) {
+            if (novel.getViewCnt() != null) {
+                views.put(novel.getId().toString(), novel.getViewCnt().doubleValue());
+            }
+            if (novel.getVoteCnt() != null) {
+                votes.put(novel.getId().toString(), novel.getVoteCnt().doubleValue());
+            }
+        }
+    }
+
     /**
      * Update author rankings - kept for manual invocation if needed
      */
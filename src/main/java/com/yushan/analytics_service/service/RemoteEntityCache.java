@@ -0,0 +1,155 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.client.ContentServiceClient;
+import com.yushan.analytics_service.client.UserServiceClient;
+import com.yushan.analytics_service.dto.ApiResponse;
+import com.yushan.analytics_service.dto.CategoryDTO;
+import com.yushan.analytics_service.dto.ChapterDTO;
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.dto.UserProfileResponseDTO;
+import com.yushan.analytics_service.util.SingleFlight;
+import com.yushan.analytics_service.util.TwoTierCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Two-tier caches for the novels, chapters, categories and user profiles this service looks up
+ * through Content Service and User Service.
+ * Lookups throw IllegalStateException when the owning service cannot be reached, so callers can
+ * tell "unknown" (absent from the result) from "could not check".
+ * Concurrent identical misses are coalesced into one downstream call.
+ * Returned DTOs are shared between callers and must not be mutated.
+ */
+@Slf4j
+@Component
+public class RemoteEntityCache {
+
+    @Autowired
+    private ContentServiceClient contentServiceClient;
+
+    @Autowired
+    private UserServiceClient userServiceClient;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${analytics.cache.ttl:600}")
+    private long redisTtlSeconds;
+
+    @Value("${analytics.cache.local.ttl:60}")
+    private long localTtlSeconds;
+
+    @Value("${analytics.cache.local.max-size:10000}")
+    private long localMaxSize;
+
+    private TwoTierCache<Integer, NovelDetailResponseDTO> novels;
+    private TwoTierCache<Integer, ChapterDTO> chapters;
+    private TwoTierCache<Integer, CategoryDTO> categories;
+    private TwoTierCache<UUID, UserProfileResponseDTO> users;
+
+    // Identical concurrent misses (e.g. a viral novel) share one downstream call
+    private SingleFlight<List<Integer>, Map<Integer, NovelDetailResponseDTO>> novelCalls;
+    private SingleFlight<List<Integer>, Map<Integer, ChapterDTO>> chapterCalls;
+    private SingleFlight<String, Map<Integer, CategoryDTO>> categoryCalls;
+    private SingleFlight<List<UUID>, Map<UUID, UserProfileResponseDTO>> userCalls;
+
+    @PostConstruct
+    public void init() {
+        novels = cache("novel", NovelDetailResponseDTO.class);
+        chapters = cache("chapter", ChapterDTO.class);
+        categories = cache("category", CategoryDTO.class);
+        users = cache("user", UserProfileResponseDTO.class);
+        novelCalls = new SingleFlight<>("content.getNovelsBatch", meterRegistry);
+        chapterCalls = new SingleFlight<>("content.getChaptersBatch", meterRegistry);
+        categoryCalls = new SingleFlight<>("content.getAllCategories", meterRegistry);
+        userCalls = new SingleFlight<>("user.getUsersBatch", meterRegistry);
+    }
+
+    /**
+     * Get novels by id, fetching misses with one getNovelsBatch call
+     */
+    public Map<Integer, NovelDetailResponseDTO> getNovels(Collection<Integer> novelIds) {
+        return novels.getAll(novelIds, ids -> novelCalls.execute(sorted(ids), () -> index(
+                unwrap(contentServiceClient.getNovelsBatch(ids), "novels", ids.size()), NovelDetailResponseDTO::getId)));
+    }
+
+    /**
+     * Get chapters by id, fetching misses with one getChaptersBatch call
+     */
+    public Map<Integer, ChapterDTO> getChapters(Collection<Integer> chapterIds) {
+        return chapters.getAll(chapterIds, ids -> chapterCalls.execute(sorted(ids), () -> index(
+                unwrap(contentServiceClient.getChaptersBatch(ids), "chapters", ids.size()), ChapterDTO::getId)));
+    }
+
+    /**
+     * Get categories by id; Content Service has no batch lookup, so misses load the full category list
+     */
+    public Map<Integer, CategoryDTO> getCategories(Collection<Integer> categoryIds) {
+        return categories.getAll(categoryIds, ids -> categoryCalls.execute("all", () -> index(
+                unwrap(contentServiceClient.getAllCategories(), "categories", ids.size()), CategoryDTO::getId)));
+    }
+
+    /**
+     * Get user profiles by id, fetching misses with one getUsersBatch call
+     */
+    public Map<UUID, UserProfileResponseDTO> getUsers(Collection<UUID> userIds) {
+        return users.getAll(userIds, ids -> userCalls.execute(sorted(ids), () -> index(
+                unwrap(userServiceClient.getUsersBatch(ids), "users", ids.size()), RemoteEntityCache::userId)));
+    }
+
+    private <K, V> TwoTierCache<K, V> cache(String name, Class<V> valueType) {
+        return new TwoTierCache<>(name, valueType, redisTemplate, meterRegistry, localMaxSize,
+                Duration.ofSeconds(localTtlSeconds), Duration.ofSeconds(redisTtlSeconds));
+    }
+
+    /**
+     * Order-independent key for a batch call
+     */
+    private static <K extends Comparable<K>> List<K> sorted(List<K> ids) {
+        return ids.stream().sorted().toList();
+    }
+
+    private static <T> List<T> unwrap(ApiResponse<List<T>> response, String entities, int count) {
+        if (response == null || response.getCode() == null || !response.getCode().equals(200) || response.getData() == null) {
+            throw new IllegalStateException("Failed to fetch " + count + " " + entities
+                    + (response != null ? ": " + response.getMessage() : ""));
+        }
+        return response.getData();
+    }
+
+    private static <K, V> Map<K, V> index(List<V> values, Function<V, K> idOf) {
+        Map<K, V> indexed = new LinkedHashMap<>();
+        for (V value : values) {
+            K id = value != null ? idOf.apply(value) : null;
+            if (id != null) {
+                indexed.put(id, value);
+            }
+        }
+        return indexed;
+    }
+
+    private static UUID userId(UserProfileResponseDTO profile) {
+        try {
+            return profile.getUuid() != null ? UUID.fromString(profile.getUuid()) : null;
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring user profile with invalid id: {}", profile.getUuid());
+            return null;
+        }
+    }
+}
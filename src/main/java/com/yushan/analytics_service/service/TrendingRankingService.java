@@ -0,0 +1,188 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.entity.History;
+import com.yushan.analytics_service.util.RedisRankingUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_AUTHOR_VIEW;
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_AUTHOR_VOTE;
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_NOVEL_VIEW_ALL;
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_NOVEL_VIEW_CATE_PREFIX;
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_NOVEL_VOTE_ALL;
+import static com.yushan.analytics_service.service.RankingUpdateService.RANK_NOVEL_VOTE_CATE_PREFIX;
+
+/**
+ * Weekly and monthly (trending) rankings.
+ * Views and votes are counted into per-day bucket sorted sets next to each overall ranking
+ * (e.g. ranking:novel:view:all:d:20261017) that expire on their own; the weekly and monthly
+ * rankings (ranking:novel:view:all:weekly) are materialized from the buckets with ZUNIONSTORE.
+ */
+@Slf4j
+@Service
+public class TrendingRankingService {
+
+    public static final String WEEKLY = "weekly";
+    public static final String MONTHLY = "monthly";
+
+    static final int WEEKLY_DAYS = 7;
+    static final int MONTHLY_DAYS = 30;
+
+    private static final String BUCKET_INFIX = ":d:";
+    private static final DateTimeFormatter BUCKET_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String VIEW_SOURCE_HISTORY = "history";
+
+    @Autowired
+    private RedisRankingUtil redisRankingUtil;
+
+    @Autowired
+    private NovelCatalog novelCatalog;
+
+    @Value("${analytics.ranking.trending.view-source:history}")
+    private String viewSource;
+
+    @Value("${analytics.ranking.trending.bucket-ttl-days:32}")
+    private long bucketTtlDays;
+
+    @Value("${analytics.ranking.trending.keep-top:1000}")
+    private long keepTop;
+
+    /**
+     * Daily bucket key of a ranking
+     */
+    public static String bucketKey(String rankingKey, LocalDate day) {
+        return rankingKey + BUCKET_INFIX + day.format(BUCKET_FORMAT);
+    }
+
+    /**
+     * Key of a ranking for the requested time range; anything but weekly/monthly is the overall ranking
+     */
+    public static String rangeKey(String rankingKey, String timeRange) {
+        if (WEEKLY.equalsIgnoreCase(timeRange)) {
+            return rankingKey + ":" + WEEKLY;
+        }
+        if (MONTHLY.equalsIgnoreCase(timeRange)) {
+            return rankingKey + ":" + MONTHLY;
+        }
+        return rankingKey;
+    }
+
+    /**
+     * Daily buckets still unioned into a ranking's trending keys, plus its weekly and monthly keys
+     */
+    public static List<String> trendingKeys(String rankingKey, LocalDate today) {
+        List<String> keys = bucketKeys(rankingKey, today, MONTHLY_DAYS);
+        keys.add(rangeKey(rankingKey, WEEKLY));
+        keys.add(rangeKey(rankingKey, MONTHLY));
+        return keys;
+    }
+
+    /**
+     * Whether views are counted from engagement events rather than from history writes
+     */
+    public boolean isEventViewSource() {
+        return !VIEW_SOURCE_HISTORY.equalsIgnoreCase(viewSource);
+    }
+
+    /**
+     * Count chapter reads from written history records as views in today's buckets
+     */
+    public void recordReads(List<History> histories) {
+        if (isEventViewSource() || histories.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Integer, Long> reads = new HashMap<>();
+            histories.forEach(history -> reads.merge(history.getNovelId(), 1L, Long::sum));
+            Map<Integer, NovelDetailResponseDTO> novels = novelCatalog.getNovels(reads.keySet());
+
+            LocalDate today = LocalDate.now();
+            Map<String, Map<String, Double>> increments = new LinkedHashMap<>();
+            reads.forEach((novelId, count) -> {
+                String member = novelId.toString();
+                increment(increments, bucketKey(RANK_NOVEL_VIEW_ALL, today), member, count);
+                NovelDetailResponseDTO novel = novels.get(novelId);
+                if (novel != null && novel.getCategoryId() != null) {
+                    increment(increments, bucketKey(RANK_NOVEL_VIEW_CATE_PREFIX + novel.getCategoryId(), today), member, count);
+                }
+                if (novel != null && novel.getAuthorId() != null) {
+                    increment(increments, bucketKey(RANK_AUTHOR_VIEW, today), novel.getAuthorId().toString(), count);
+                }
+            });
+            redisRankingUtil.incrementSortedSets(increments, Duration.ofDays(bucketTtlDays));
+        } catch (Exception e) {
+            // Trending counts are best effort and must never fail the history write
+            log.warn("Failed to record {} reads in trending buckets: {}", histories.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Scheduled materialization of the weekly and monthly rankings
+     */
+    @Scheduled(fixedDelayString = "${analytics.ranking.trending.interval:600}",
+            initialDelayString = "${analytics.ranking.trending.interval:600}",
+            timeUnit = TimeUnit.SECONDS)
+    public void scheduledMaterialize() {
+        try {
+            materialize();
+        } catch (Exception e) {
+            log.error("Error materializing trending rankings: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rebuild every weekly and monthly ranking from the daily buckets
+     */
+    public void materialize() {
+        List<String> rankingKeys = new ArrayList<>(List.of(RANK_NOVEL_VIEW_ALL, RANK_NOVEL_VOTE_ALL, RANK_AUTHOR_VIEW, RANK_AUTHOR_VOTE));
+        novelCatalog.snapshot().getNovels().stream()
+                .map(NovelDetailResponseDTO::getCategoryId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(categoryId -> {
+                    rankingKeys.add(RANK_NOVEL_VIEW_CATE_PREFIX + categoryId);
+                    rankingKeys.add(RANK_NOVEL_VOTE_CATE_PREFIX + categoryId);
+                });
+
+        LocalDate today = LocalDate.now();
+        Map<String, List<String>> unions = new LinkedHashMap<>();
+        List<String> currentBuckets = new ArrayList<>();
+        for (String rankingKey : rankingKeys) {
+            unions.put(rangeKey(rankingKey, WEEKLY), bucketKeys(rankingKey, today, WEEKLY_DAYS));
+            unions.put(rangeKey(rankingKey, MONTHLY), bucketKeys(rankingKey, today, MONTHLY_DAYS));
+            // Buckets filled by event scripts get their TTL here
+            currentBuckets.add(bucketKey(rankingKey, today));
+            currentBuckets.add(bucketKey(rankingKey, today.minusDays(1)));
+        }
+
+        redisRankingUtil.unionSortedSets(unions, keepTop, currentBuckets, Duration.ofDays(bucketTtlDays));
+        log.info("Materialized weekly and monthly rankings for {} ranking keys", rankingKeys.size());
+    }
+
+    private static List<String> bucketKeys(String rankingKey, LocalDate today, int days) {
+        List<String> keys = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            keys.add(bucketKey(rankingKey, today.minusDays(i)));
+        }
+        return keys;
+    }
+
+    private static void increment(Map<String, Map<String, Double>> increments, String key, String member, double delta) {
+        increments.computeIfAbsent(key, k -> new HashMap<>()).merge(member, delta, Double::sum);
+    }
+}
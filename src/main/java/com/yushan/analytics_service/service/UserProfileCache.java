@@ -0,0 +1,60 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.dto.UserProfileResponseDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * User profiles for leaderboard pages, keyed by the user ids stored in the rankings.
+ * Profiles come from the shared user entity cache, so misses for a page are fetched
+ * from User Service with a single batch call.
+ */
+@Slf4j
+@Service
+public class UserProfileCache {
+
+    @Autowired
+    private RemoteEntityCache remoteEntityCache;
+
+    /**
+     * Get profiles by user id; unknown users and ids that User Service could not resolve are absent
+     *
+     * @return copies of the cached profiles, safe to modify
+     */
+    public Map<String, UserProfileResponseDTO> getProfiles(Collection<String> userIds) {
+        List<UUID> ids = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            try {
+                ids.add(UUID.fromString(userId));
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping invalid user id in ranking: {}", userId);
+            }
+        }
+
+        Map<String, UserProfileResponseDTO> result = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return result;
+        }
+        try {
+            remoteEntityCache.getUsers(ids).forEach((userId, profile) -> result.put(userId.toString(), copy(profile)));
+        } catch (Exception e) {
+            log.warn("Failed to fetch {} user profiles for ranking: {}", ids.size(), e.getMessage());
+        }
+        return result;
+    }
+
+    private static UserProfileResponseDTO copy(UserProfileResponseDTO profile) {
+        UserProfileResponseDTO copy = new UserProfileResponseDTO();
+        BeanUtils.copyProperties(profile, copy);
+        return copy;
+    }
+}
@@ -1,15 +1,23 @@
 package com.yushan.analytics_service.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * HMAC Utility for verifying gateway-validated requests
- * 
+ *
  * This utility verifies HMAC signatures to ensure requests
  * are actually from the API Gateway and not forged by attackers.
  */
@@ -17,10 +25,13 @@ public class HmacUtil {
 
     private static final String HMAC_ALGORITHM = "HmacSHA256";
     private static final long TIMESTAMP_TOLERANCE_MS = 5 * 60 * 1000; // 5 minutes
+    private static final int VERIFIED_CACHE_SIZE = 10_000;
+
+    private static final Map<String, Verifier> VERIFIERS = new ConcurrentHashMap<>();
 
     /**
      * Verify HMAC signature from gateway
-     * 
+     *
      * @param userId User ID
      * @param email User email
      * @param role User role
@@ -29,75 +40,193 @@ public class HmacUtil {
      * @param secret Shared secret key
      * @return true if signature is valid, false otherwise
      */
-    public static boolean verifySignature(String userId, String email, String role, long timestamp, 
+    public static boolean verifySignature(String userId, String email, String role, long timestamp,
                                           String signature, String secret) {
-        try {
+        if (secret == null) {
+            return false;
+        }
+        return VERIFIERS.computeIfAbsent(secret, key -> new Verifier(key, VERIFIED_CACHE_SIZE))
+                .verify(userId, email, role, timestamp, signature);
+    }
+
+    /**
+     * Signature verifier for one shared secret.
+     * Initialized Macs are pooled with their buffers (request threads are virtual, so per-thread
+     * instances would not be reused), the message is fed to the Mac without building a String, and
+     * the digest is compared to the signature in constant time without building the expected Base64
+     * string. Verified signatures are remembered for the timestamp tolerance, so a token replayed by
+     * the gateway on every request of a session is only computed once; failures are never cached.
+     */
+    public static final class Verifier {
+
+        private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+        private final Mac prototype;
+        private final BlockingQueue<Signer> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+        private final Cache<SignedHeaders, Boolean> verified;
+
+        /**
+         * @param secret shared secret key
+         * @param cacheSize maximum number of verified signatures remembered; 0 disables the cache
+         */
+        public Verifier(String secret, int cacheSize) {
+            try {
+                prototype = Mac.getInstance(HMAC_ALGORITHM);
+                prototype.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC algorithm unavailable: " + e.getMessage(), e);
+            }
+            verified = cacheSize > 0
+                    ? Caffeine.newBuilder()
+                        .maximumSize(cacheSize)
+                        .expireAfterWrite(Duration.ofMillis(TIMESTAMP_TOLERANCE_MS))
+                        .build()
+                    : null;
+        }
+
+        /**
+         * Verify a signature of userId|email|role|timestamp
+         *
+         * @return true if the timestamp is within tolerance and the signature is valid
+         */
+        public boolean verify(String userId, String email, String role, long timestamp, String signature) {
             // Check timestamp to prevent replay attacks (allow 5 minutes tolerance)
-            long currentTime = System.currentTimeMillis();
-            long timeDiff = Math.abs(currentTime - timestamp);
-            if (timeDiff > TIMESTAMP_TOLERANCE_MS) {
+            if (Math.abs(System.currentTimeMillis() - timestamp) > TIMESTAMP_TOLERANCE_MS) {
                 return false; // Timestamp too old or too far in future
             }
+            if (signature == null) {
+                return false;
+            }
+            String effectiveRole = role != null ? role : "USER";
+            SignedHeaders headers = verified != null
+                    ? new SignedHeaders(userId, email, effectiveRole, timestamp, signature)
+                    : null;
+            if (headers != null && verified.getIfPresent(headers) != null) {
+                return true;
+            }
 
-            // Generate expected signature
-            String expectedSignature = generateSignature(userId, email, role, timestamp, secret);
-            
-            // Use constant-time comparison to prevent timing attacks
-            return constantTimeEquals(expectedSignature, signature);
-        } catch (Exception e) {
-            return false;
+            boolean valid;
+            Signer signer = borrow();
+            try {
+                valid = signer.matches(userId, email, effectiveRole, timestamp, signature);
+            } catch (GeneralSecurityException | RuntimeException e) {
+                return false;
+            } finally {
+                release(signer);
+            }
+            if (valid && headers != null) {
+                verified.put(headers, Boolean.TRUE);
+            }
+            return valid;
+        }
+
+        private Signer borrow() {
+            Signer signer = pool.poll();
+            if (signer != null) {
+                return signer;
+            }
+            try {
+                return new Signer((Mac) prototype.clone());
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException("HMAC implementation cannot be cloned", e);
+            }
+        }
+
+        @SuppressFBWarnings(value = "RV_RETURN_VALUE_IGNORED_BAD_PRACTICE",
+                justification = "Signers beyond the pool size are left to the garbage collector")
+        private void release(Signer signer) {
+            pool.offer(signer);
         }
     }
 
-    /**
-     * Generate HMAC signature (for verification)
-     * 
-     * @param userId User ID
-     * @param email User email
-     * @param role User role
-     * @param timestamp Request timestamp
-     * @param secret Shared secret key
-     * @return Base64-encoded HMAC signature
-     * @throws NoSuchAlgorithmException if HMAC algorithm not available
-     * @throws InvalidKeyException if secret key is invalid
-     */
-    private static String generateSignature(String userId, String email, String role, long timestamp, String secret) 
-            throws NoSuchAlgorithmException, InvalidKeyException {
-        
-        // Create message to sign: userId|email|role|timestamp
-        String message = String.format("%s|%s|%s|%d", userId, email, role != null ? role : "USER", timestamp);
-        
-        // Generate HMAC
-        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
-        SecretKeySpec secretKeySpec = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
-        mac.init(secretKeySpec);
-        
-        byte[] hmacBytes = mac.doFinal(message.getBytes(StandardCharsets.UTF_8));
-        
-        // Return Base64-encoded signature
-        return Base64.getEncoder().encodeToString(hmacBytes);
+    private record SignedHeaders(String userId, String email, String role, long timestamp, String signature) {
     }
 
     /**
-     * Constant-time string comparison to prevent timing attacks
-     * 
-     * @param a First string
-     * @param b Second string
-     * @return true if strings are equal, false otherwise
+     * An initialized Mac with reusable message, digest and Base64 buffers
      */
-    private static boolean constantTimeEquals(String a, String b) {
-        if (a == null || b == null) {
-            return false;
+    private static final class Signer {
+
+        private static final Base64.Encoder ENCODER = Base64.getEncoder();
+
+        private final Mac mac;
+        private final byte[] message = new byte[256];
+        private final byte[] digest;
+        private final byte[] encoded;
+
+        private Signer(Mac mac) {
+            this.mac = mac;
+            this.digest = new byte[mac.getMacLength()];
+            this.encoded = new byte[4 * ((digest.length + 2) / 3)];
         }
-        if (a.length() != b.length()) {
-            return false;
+
+        private boolean matches(String userId, String email, String role, long timestamp, String signature)
+                throws GeneralSecurityException {
+            if (signature.length() != encoded.length) {
+                return false;
+            }
+            // Create message to sign: userId|email|role|timestamp
+            int length = appendAscii(message, 0, String.valueOf(userId));
+            length = appendByte(message, length, '|');
+            length = appendAscii(message, length, String.valueOf(email));
+            length = appendByte(message, length, '|');
+            length = appendAscii(message, length, role);
+            length = appendByte(message, length, '|');
+            length = appendDigits(message, length, timestamp);
+            if (length >= 0) {
+                mac.update(message, 0, length);
+            } else {
+                // Non-ASCII or unusually long headers
+                mac.update((userId + "|" + email + "|" + role + "|" + timestamp).getBytes(StandardCharsets.UTF_8));
+            }
+            mac.doFinal(digest, 0);
+            ENCODER.encode(digest, encoded);
+
+            // Use constant-time comparison to prevent timing attacks
+            int result = 0;
+            for (int i = 0; i < encoded.length; i++) {
+                result |= encoded[i] ^ signature.charAt(i);
+            }
+            return result == 0;
         }
-        
-        int result = 0;
-        for (int i = 0; i < a.length(); i++) {
-            result |= a.charAt(i) ^ b.charAt(i);
+
+        private static int appendAscii(byte[] buffer, int position, String value) {
+            if (position < 0 || position + value.length() > buffer.length) {
+                return -1;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    return -1;
+                }
+                buffer[position + i] = (byte) c;
+            }
+            return position + value.length();
+        }
+
+        private static int appendByte(byte[] buffer, int position, char value) {
+            if (position < 0 || position >= buffer.length) {
+                return -1;
+            }
+            buffer[position] = (byte) value;
+            return position + 1;
+        }
+
+        private static int appendDigits(byte[] buffer, int position, long value) {
+            // Timestamps within tolerance of the current time are positive
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            if (position < 0 || value < 0 || position + digits > buffer.length) {
+                return -1;
+            }
+            long rest = value;
+            for (int i = position + digits - 1; i >= position; i--) {
+                buffer[i] = (byte) ('0' + rest % 10);
+                rest /= 10;
+            }
+            return position + digits;
         }
-        return result == 0;
     }
 }
-
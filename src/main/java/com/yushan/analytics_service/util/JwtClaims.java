@@ -0,0 +1,46 @@
+package com.yushan.analytics_service.util;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Claims of a verified JWT, read once from the token
+ *
+ * @param expiresAt expiration in epoch milliseconds, 0 when the token has none
+ */
+public record JwtClaims(String userId, String email, String username, String role, Integer status,
+                        String tokenType, long expiresAt) {
+
+    /**
+     * Copy the claims used by this service out of parsed token claims
+     *
+     * @param claims verified token claims
+     * @return JwtClaims
+     */
+    public static JwtClaims from(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return new JwtClaims(
+                claims.get("userId", String.class),
+                claims.get("email", String.class),
+                claims.get("username", String.class),
+                claims.get("role", String.class),
+                claims.get("status", Integer.class),
+                claims.get("tokenType", String.class),
+                expiration != null ? expiration.getTime() : 0L);
+    }
+
+    /**
+     * @return true if the token has expired or has no expiration
+     */
+    public boolean isExpired() {
+        return expiresAt <= System.currentTimeMillis();
+    }
+
+    /**
+     * @return true if this is an access token
+     */
+    public boolean isAccessToken() {
+        return "access".equals(tokenType);
+    }
+}
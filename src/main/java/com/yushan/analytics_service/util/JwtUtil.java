@@ -1,14 +1,24 @@
 package com.yushan.analytics_service.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -18,6 +28,7 @@ import java.util.function.Function;
  * - Extract information from JWT tokens
  * - Validate tokens
  * - Check token expiration
+ * - Verify a token once per request and reuse its claims ({@link #parseToken})
  */
 @Component
 public class JwtUtil {
@@ -28,14 +39,82 @@ public class JwtUtil {
     @Value("${jwt.issuer}")
     private String issuer;
 
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<ByteBuffer, JwtClaims> claimsCache;
+
     /**
-     * Get the secret key for JWT validation
-     * 
-     * @return SecretKey object for JWT operations
+     * Build the signing key and parser once, and the verified claims cache
      */
-    private SecretKey getSigningKey() {
+    @PostConstruct
+    public void init() {
         byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<ByteBuffer, JwtClaims>() {
+                    // Entries are dropped when their token expires
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, JwtClaims claims, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, claims.expiresAt() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, JwtClaims claims, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, claims, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, JwtClaims claims, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Verify a token and return its claims, reusing the claims of a token verified earlier
+     *
+     * @param token JWT token
+     * @return claims of the token, or null if the token is malformed, forged or expired
+     */
+    public JwtClaims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        ByteBuffer key = tokenHash(token);
+        JwtClaims cached = claimsCache.getIfPresent(key);
+        if (cached != null) {
+            return cached.isExpired() ? null : cached;
+        }
+        JwtClaims claims;
+        try {
+            claims = JwtClaims.from(extractAllClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (claims.isExpired()) {
+            return null;
+        }
+        claimsCache.put(key, claims);
+        return claims;
+    }
+
+    private static ByteBuffer tokenHash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
     }
 
     /**
@@ -128,10 +207,7 @@ public class JwtUtil {
      * @return Claims object containing all token claims
      */
     public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
+        return parser.parseSignedClaims(token)
                 .getPayload();
     }
 
@@ -0,0 +1,106 @@
+package com.yushan.analytics_service.util;
+
+import com.yushan.analytics_service.dto.PageResponseDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Crawls a paginated downstream endpoint concurrently on virtual threads.
+ * The first page is fetched on the calling thread and its totalPages schedules the rest, with at
+ * most {@code concurrency} pages in flight. Each page is handed to a page processor on the thread
+ * that fetched it, so follow-up calls for a page (e.g. a batch lookup of its ids) overlap with the
+ * fetches of later pages. Endpoints that do not report totalPages are crawled sequentially.
+ */
+@Slf4j
+public final class PageCrawler {
+
+    private PageCrawler() {
+    }
+
+    /**
+     * Fetch and process every page
+     *
+     * @param fetchPage returns a page by number, or null if it could not be fetched
+     * @param processPage turns the content of one page into a result
+     * @return the results of all pages that were fetched, in page order
+     */
+    public static <T, R> List<R> crawl(String name, IntFunction<PageResponseDTO<T>> fetchPage,
+                                       Function<List<T>, R> processPage, int maxPages, int concurrency) {
+        List<R> results = new ArrayList<>();
+        PageResponseDTO<T> first = fetchPage.apply(0);
+        if (first == null || first.getContent().isEmpty()) {
+            log.warn("Crawl of {} returned no first page", name);
+            return results;
+        }
+        results.add(processPage.apply(first.getContent()));
+
+        if (first.getTotalPages() <= 0) {
+            return crawlSequentially(name, fetchPage, processPage, first, maxPages, results);
+        }
+
+        int totalPages = Math.min(first.getTotalPages(), maxPages);
+        Semaphore permits = new Semaphore(Math.max(1, concurrency));
+        List<Future<R>> pages = new ArrayList<>(totalPages);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int page = 1; page < totalPages; page++) {
+                int pageNumber = page;
+                pages.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        PageResponseDTO<T> pageData = fetchPage.apply(pageNumber);
+                        return pageData != null ? processPage.apply(pageData.getContent()) : null;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (int i = 0; i < pages.size(); i++) {
+                R result = await(pages.get(i), name, i + 1);
+                if (result != null) {
+                    results.add(result);
+                }
+            }
+        }
+        log.info("Crawled {} pages of {} with concurrency {}", totalPages, name, concurrency);
+        return results;
+    }
+
+    private static <T, R> List<R> crawlSequentially(String name, IntFunction<PageResponseDTO<T>> fetchPage,
+                                                    Function<List<T>, R> processPage, PageResponseDTO<T> first,
+                                                    int maxPages, List<R> results) {
+        boolean hasMore = first.isHasNext();
+        int page = 1;
+        while (hasMore && page < maxPages) {
+            PageResponseDTO<T> pageData = fetchPage.apply(page);
+            if (pageData == null || pageData.getContent().isEmpty()) {
+                break;
+            }
+            results.add(processPage.apply(pageData.getContent()));
+            hasMore = pageData.isHasNext();
+            page++;
+        }
+        log.info("Crawled {} pages of {} sequentially (no page count reported)", page, name);
+        return results;
+    }
+
+    private static <R> R await(Future<R> page, String name, int pageNumber) {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while crawling " + name, e);
+        } catch (ExecutionException e) {
+            log.warn("Failed to fetch page {} of {}: {}", pageNumber, name, e.getCause().getMessage());
+            return null;
+        }
+    }
+}
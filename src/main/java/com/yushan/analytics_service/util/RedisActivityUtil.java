@@ -0,0 +1,156 @@
+package com.yushan.analytics_service.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis utility for approximate active-user counting.
+ * Every reading activity is added to a per-day and a per-hour HyperLogLog of user ids and
+ * bumps a per-hour session counter; distinct users over any range of days are then a single
+ * multi-key PFCOUNT (~0.81% standard error) instead of a COUNT(DISTINCT) scan.
+ * Keys use the server's default time zone, like the day boundaries of the history queries.
+ */
+@Component
+public class RedisActivityUtil {
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private static final String DAILY_PREFIX = "analytics:hll:day:";
+    private static final String HOURLY_PREFIX = "analytics:hll:hour:";
+    private static final String HOURLY_SESSIONS_PREFIX = "analytics:sessions:hour:";
+    private static final String TRACKING_SINCE_KEY = "analytics:hll:since";
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    private static final StringRedisSerializer SERIALIZER = StringRedisSerializer.UTF_8;
+
+    /**
+     * Record reading activity in a single pipeline
+     *
+     * @param activities user id to the time of the activity; one entry per activity
+     * @param dailyTtl how long per-day counters are kept
+     * @param hourlyTtl how long per-hour counters are kept
+     */
+    public void recordActivity(List<Map.Entry<String, Instant>> activities, Duration dailyTtl, Duration hourlyTtl) {
+        if (activities.isEmpty()) {
+            return;
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        Map<String, Duration> touchedKeys = new LinkedHashMap<>();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<String, Instant> activity : activities) {
+                LocalDateTime time = LocalDateTime.ofInstant(activity.getValue(), zone);
+                byte[] member = SERIALIZER.serialize(activity.getKey());
+                String dailyKey = dailyKey(time.toLocalDate());
+                String hourlyKey = hourlyKey(time);
+                String sessionsKey = hourlySessionsKey(time);
+                connection.hyperLogLogCommands().pfAdd(SERIALIZER.serialize(dailyKey), member);
+                connection.hyperLogLogCommands().pfAdd(SERIALIZER.serialize(hourlyKey), member);
+                connection.stringCommands().incr(SERIALIZER.serialize(sessionsKey));
+                touchedKeys.put(dailyKey, dailyTtl);
+                touchedKeys.put(hourlyKey, hourlyTtl);
+                touchedKeys.put(sessionsKey, hourlyTtl);
+            }
+            touchedKeys.forEach((key, ttl) -> connection.keyCommands().expire(SERIALIZER.serialize(key), ttl.toSeconds()));
+            // First day with counters; ranges starting earlier are not covered
+            connection.stringCommands().setNX(SERIALIZER.serialize(TRACKING_SINCE_KEY),
+                    SERIALIZER.serialize(LocalDate.now(zone).format(DAY_FORMAT)));
+            return null;
+        });
+    }
+
+    /**
+     * Approximate number of distinct users active on any of the given days
+     */
+    public long countDistinctUsers(LocalDate startDay, LocalDate endDay) {
+        List<String> keys = new ArrayList<>();
+        for (LocalDate day = startDay; !day.isAfter(endDay); day = day.plusDays(1)) {
+            keys.add(dailyKey(day));
+        }
+        return countUnion(keys);
+    }
+
+    /**
+     * Approximate distinct users and session counts for each hour of a day
+     *
+     * @return two lists of 24 values: distinct users per hour, then sessions per hour
+     */
+    public List<List<Long>> countHourly(LocalDate day) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int hour = 0; hour < 24; hour++) {
+                connection.hyperLogLogCommands().pfCount(SERIALIZER.serialize(hourlyKey(day.atTime(hour, 0))));
+            }
+            for (int hour = 0; hour < 24; hour++) {
+                connection.stringCommands().get(SERIALIZER.serialize(hourlySessionsKey(day.atTime(hour, 0))));
+            }
+            return null;
+        }, SERIALIZER);
+
+        List<Long> users = new ArrayList<>(24);
+        List<Long> sessions = new ArrayList<>(24);
+        for (int hour = 0; hour < 24; hour++) {
+            users.add(toLong(results.get(hour)));
+            sessions.add(toLong(results.get(24 + hour)));
+        }
+        return List.of(users, sessions);
+    }
+
+    /**
+     * First day for which activity counters exist, or null if nothing was recorded yet
+     */
+    public LocalDate getTrackingSince() {
+        String since = redisTemplate.execute((RedisCallback<String>) connection ->
+                SERIALIZER.deserialize(connection.stringCommands().get(SERIALIZER.serialize(TRACKING_SINCE_KEY))));
+        return since != null ? LocalDate.parse(since, DAY_FORMAT) : null;
+    }
+
+    /**
+     * PFCOUNT over several keys returns the cardinality of their union without a PFMERGE into a
+     * temporary key
+     */
+    private long countUnion(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return 0L;
+        }
+        byte[][] rawKeys = keys.stream().map(SERIALIZER::serialize).toArray(byte[][]::new);
+        Long count = redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.hyperLogLogCommands().pfCount(rawKeys));
+        return count != null ? count : 0L;
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+
+    private static String dailyKey(LocalDate day) {
+        return DAILY_PREFIX + day.format(DAY_FORMAT);
+    }
+
+    private static String hourlyKey(LocalDateTime time) {
+        return HOURLY_PREFIX + time.format(HOUR_FORMAT);
+    }
+
+    private static String hourlySessionsKey(LocalDateTime time) {
+        return HOURLY_SESSIONS_PREFIX + time.format(HOUR_FORMAT);
+    }
+}
@@ -0,0 +1,173 @@
+package com.yushan.analytics_service.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keyspace operations that do not block the Redis event loop.
+ * Keys are listed with incremental SCAN instead of KEYS and removed with UNLINK, which frees
+ * memory in the background, in batches. Cache families can also keep a tag set (a sorted set of
+ * their keys scored by expiry time) so invalidating a family costs O(members) instead of a scan of
+ * the whole keyspace; members whose keys have expired are pruned on every write.
+ */
+@Slf4j
+@Component
+public class RedisKeyIndex {
+
+    private static final String TAG_PREFIX = "tag:";
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${analytics.redis.scan-count:1000}")
+    private int scanCount;
+
+    @Value("${analytics.redis.unlink-batch-size:500}")
+    private int unlinkBatchSize;
+
+    @Value("${analytics.redis.tag-invalidation.scan-untagged:false}")
+    private boolean scanUntagged;
+
+    /**
+     * Keys matching a glob pattern, collected with SCAN
+     */
+    public Set<String> scan(String pattern) {
+        Set<String> keys = new LinkedHashSet<>();
+        try (Cursor<String> cursor = redisTemplate.scan(scanOptions(pattern))) {
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Unlink every key matching a glob pattern while scanning, one batch at a time
+     *
+     * @return number of keys removed
+     */
+    public long unlinkMatching(String pattern) {
+        long unlinked = 0;
+        List<String> batch = new ArrayList<>(unlinkBatchSize);
+        try (Cursor<String> cursor = redisTemplate.scan(scanOptions(pattern))) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= unlinkBatchSize) {
+                    unlinked += unlink(batch);
+                    batch.clear();
+                }
+            }
+        }
+        return unlinked + unlink(batch);
+    }
+
+    /**
+     * Unlink keys in batches of analytics.redis.unlink-batch-size
+     *
+     * @return number of keys removed
+     */
+    public long unlink(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+        List<String> all = List.copyOf(keys);
+        long unlinked = 0;
+        for (int from = 0; from < all.size(); from += unlinkBatchSize) {
+            Long removed = redisTemplate.unlink(all.subList(from, Math.min(from + unlinkBatchSize, all.size())));
+            unlinked += removed != null ? removed : 0;
+        }
+        return unlinked;
+    }
+
+    /**
+     * Record a key in a tag set and prune members that have expired.
+     * The set lives as long as its newest member, so keys of one tag should share a TTL.
+     */
+    public void tag(String tag, String key, Duration ttl) {
+        String tagKey = TAG_PREFIX + tag;
+        long now = System.currentTimeMillis();
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ops.opsForZSet().add(tagKey, key, now + ttl.toMillis());
+                ops.opsForZSet().removeRangeByScore(tagKey, Double.NEGATIVE_INFINITY, now);
+                ops.expire(tagKey, ttl);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Unlink the keys of a tag set and the set itself.
+     * Keys written without a tag (before the tag set existed, or after it was evicted) are found by
+     * scanning for the fallback pattern instead. analytics.redis.tag-invalidation.scan-untagged is a
+     * one-off migration switch: while it is on, the scan also follows every tag drain so keys written
+     * before tagging was rolled out are removed too; with it off (the default), such keys stay until
+     * their TTL expires.
+     *
+     * @return number of keys removed
+     */
+    public long invalidateTag(String tag, String fallbackPattern) {
+        String tagKey = TAG_PREFIX + tag;
+        // Move the set aside first so keys tagged during the invalidation land in a fresh set
+        String draining = tagKey + ":invalidating:" + UUID.randomUUID();
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(tagKey))) {
+                return unlinkMatching(fallbackPattern);
+            }
+            redisTemplate.rename(tagKey, draining);
+        } catch (DataAccessException e) {
+            log.warn("Tag set {} unavailable, scanning for {}: {}", tagKey, fallbackPattern, e.getMessage());
+            return unlinkMatching(fallbackPattern);
+        }
+
+        long unlinked = 0;
+        long now = System.currentTimeMillis();
+        List<String> batch = new ArrayList<>(unlinkBatchSize);
+        try (Cursor<ZSetOperations.TypedTuple<Object>> cursor =
+                     redisTemplate.opsForZSet().scan(draining, ScanOptions.scanOptions().count(scanCount).build())) {
+            while (cursor.hasNext()) {
+                ZSetOperations.TypedTuple<Object> member = cursor.next();
+                Double expiresAt = member.getScore();
+                // Keys past their expiry are already gone
+                if (expiresAt != null && expiresAt <= now) {
+                    continue;
+                }
+                batch.add(String.valueOf(member.getValue()));
+                if (batch.size() >= unlinkBatchSize) {
+                    unlinked += unlink(batch);
+                    batch.clear();
+                }
+            }
+        }
+        unlinked += unlink(batch);
+        redisTemplate.unlink(draining);
+        if (scanUntagged) {
+            unlinked += unlinkMatching(fallbackPattern);
+        }
+        return unlinked;
+    }
+
+    private ScanOptions scanOptions(String pattern) {
+        return ScanOptions.scanOptions().match(pattern).count(scanCount).build();
+    }
+}
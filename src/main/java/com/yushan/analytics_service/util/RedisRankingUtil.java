@@ -0,0 +1,366 @@
+package com.yushan.analytics_service.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Redis utility for bulk ranking maintenance.
+ * Groups the multi-command sorted set operations used when rankings are rebuilt or updated,
+ * so that they run in as few round trips as possible.
+ */
+@Component
+public class RedisRankingUtil {
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private static final String STAGING_INFIX = ":staging:";
+    private static final Duration STAGING_TTL = Duration.ofMinutes(10);
+    private static final int ZADD_BATCH_SIZE = 1000;
+    private static final String EVENT_DEDUP_PREFIX = "ranking:event:";
+
+    /**
+     * Applies the sorted set operations of one event at most once.
+     * KEYS[1] is the dedup marker, KEYS[2..n] the sorted sets; ARGV[1] is the marker TTL in seconds
+     * followed by an (operation, member, score) triple per sorted set key.
+     */
+    private static final String APPLY_ONCE_SCRIPT =
+            "if not redis.call('SET', KEYS[1], '1', 'NX', 'EX', ARGV[1]) then return 0 end\n"
+            + "for i = 2, #KEYS do\n"
+            + "  local base = (i - 2) * 3 + 2\n"
+            + "  local op, member, score = ARGV[base], ARGV[base + 1], ARGV[base + 2]\n"
+            + "  if op == 'ZINCRBY' then redis.call('ZINCRBY', KEYS[i], score, member)\n"
+            + "  elseif op == 'ZADD' then redis.call('ZADD', KEYS[i], score, member)\n"
+            + "  elseif op == 'ZADDGT' then redis.call('ZADD', KEYS[i], 'GT', score, member)\n"
+            + "  elseif op == 'ZREM' then redis.call('ZREM', KEYS[i], member) end\n"
+            + "end\n"
+            + "return 1";
+
+    /**
+     * Atomically replace the contents of several sorted sets.
+     * Members are written to unique staging keys with multi-member ZADDs inside a single
+     * pipeline, then every staging key is RENAMEd over its live key in one MULTI/EXEC, so
+     * readers see either the old or the new sets and never a partially built one.
+     * Sets without members and the given stale keys are deleted in the same transaction.
+     *
+     * @param sets live key to (member to score) contents
+     * @param staleKeys live keys that are no longer produced and should be removed
+     */
+    @SuppressWarnings("unchecked")
+    public void replaceSortedSets(Map<String, Map<String, Double>> sets, Collection<String> staleKeys) {
+        String token = UUID.randomUUID().toString();
+        Map<String, String> stagingKeys = new LinkedHashMap<>();
+        sets.forEach((key, members) -> {
+            if (members != null && !members.isEmpty()) {
+                stagingKeys.put(key, key + STAGING_INFIX + token);
+            }
+        });
+
+        if (!stagingKeys.isEmpty()) {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    stagingKeys.forEach((key, stagingKey) -> {
+                        Set<ZSetOperations.TypedTuple<Object>> batch = new HashSet<>();
+                        for (Map.Entry<String, Double> member : sets.get(key).entrySet()) {
+                            batch.add(new DefaultTypedTuple<>(member.getKey(), member.getValue()));
+                            if (batch.size() >= ZADD_BATCH_SIZE) {
+                                ops.opsForZSet().add(stagingKey, batch);
+                                batch = new HashSet<>();
+                            }
+                        }
+                        if (!batch.isEmpty()) {
+                            ops.opsForZSet().add(stagingKey, batch);
+                        }
+                        // Abandoned staging keys expire on their own if the swap never happens
+                        ops.expire(stagingKey, STAGING_TTL);
+                    });
+                    return null;
+                }
+            });
+        }
+
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ops.multi();
+                for (String key : sets.keySet()) {
+                    String stagingKey = stagingKeys.get(key);
+                    if (stagingKey != null) {
+                        ops.rename(stagingKey, key);
+                        // RENAME carries the staging TTL over to the live key
+                        ops.persist(key);
+                    } else {
+                        ops.delete(key);
+                    }
+                }
+                if (staleKeys != null) {
+                    staleKeys.stream()
+                            .filter(key -> !sets.containsKey(key))
+                            .forEach(ops::delete);
+                }
+                return ops.exec();
+            }
+        });
+    }
+
+    /**
+     * Apply incremental ranking updates in a single pipeline.
+     * Each update runs as one Lua script that first claims a dedup marker for its event id,
+     * so replayed events are skipped and an event's operations are applied all-or-nothing.
+     * Updates are sent in list order, which keeps per-partition event order intact.
+     *
+     * @param updates updates to apply, in order
+     * @param dedupTtl how long processed event ids are remembered
+     * @return number of updates that were applied (not duplicates)
+     */
+    public int applyRankingUpdates(List<RankingUpdate> updates, Duration dedupTtl) {
+        List<RankingUpdate> pending = updates.stream().filter(update -> !update.isEmpty()).toList();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        StringRedisSerializer stringSerializer = StringRedisSerializer.UTF_8;
+        RedisSerializer<?> memberSerializer = redisTemplate.getValueSerializer();
+        byte[] script = stringSerializer.serialize(APPLY_ONCE_SCRIPT);
+        byte[] ttl = stringSerializer.serialize(String.valueOf(dedupTtl.toSeconds()));
+
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (RankingUpdate update : pending) {
+                int size = update.operations.size();
+                byte[][] keysAndArgs = new byte[1 + size + 1 + size * 3][];
+                keysAndArgs[0] = stringSerializer.serialize(EVENT_DEDUP_PREFIX + update.eventId);
+                keysAndArgs[1 + size] = ttl;
+                for (int i = 0; i < size; i++) {
+                    Operation operation = update.operations.get(i);
+                    int arg = 2 + size + i * 3;
+                    keysAndArgs[1 + i] = stringSerializer.serialize(operation.key);
+                    keysAndArgs[arg] = stringSerializer.serialize(operation.command);
+                    // Members are encoded like every other write through the template
+                    keysAndArgs[arg + 1] = serializeMember(memberSerializer, operation.member);
+                    keysAndArgs[arg + 2] = stringSerializer.serialize(Double.toString(operation.score));
+                }
+                connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1 + size, keysAndArgs);
+            }
+            return null;
+        });
+
+        return (int) results.stream().filter(result -> result instanceof Long && (Long) result == 1L).count();
+    }
+
+    /**
+     * Increment member scores of several sorted sets in a single pipeline and (re)set their TTL
+     *
+     * @param increments key to (member to delta)
+     * @param ttl expiry applied to every incremented key
+     */
+    @SuppressWarnings("unchecked")
+    public void incrementSortedSets(Map<String, Map<String, Double>> increments, Duration ttl) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                increments.forEach((key, members) -> {
+                    members.forEach((member, delta) -> ops.opsForZSet().incrementScore(key, member, delta));
+                    ops.expire(key, ttl);
+                });
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Materialize sorted set unions in a single pipeline.
+     * Each ZUNIONSTORE replaces its destination atomically (an empty union deletes it), and the
+     * result is trimmed to its highest scoring members.
+     *
+     * @param unions destination key to the source keys summed into it
+     * @param keepTop number of members kept per destination
+     * @param expireKeys keys whose TTL is (re)set in the same pipeline, may be empty
+     * @param ttl expiry for expireKeys
+     */
+    @SuppressWarnings("unchecked")
+    public void unionSortedSets(Map<String, List<String>> unions, long keepTop, Collection<String> expireKeys, Duration ttl) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                expireKeys.forEach(key -> ops.expire(key, ttl));
+                unions.forEach((destination, sources) -> {
+                    if (sources.isEmpty()) {
+                        ops.delete(destination);
+                        return;
+                    }
+                    ops.opsForZSet().unionAndStore(sources.get(0), sources.subList(1, sources.size()), destination);
+                    ops.opsForZSet().removeRange(destination, 0, -(keepTop + 1));
+                });
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Look up the reverse rank and score of several (key, member) pairs in a single pipeline
+     *
+     * @param lookups sorted set key and member pairs
+     * @return one entry per lookup, in order; null where the member is not in the set
+     */
+    @SuppressWarnings("unchecked")
+    public List<MemberRank> reverseRanks(List<Map.Entry<String, String>> lookups) {
+        if (lookups.isEmpty()) {
+            return List.of();
+        }
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (Map.Entry<String, String> lookup : lookups) {
+                    ops.opsForZSet().reverseRank(lookup.getKey(), lookup.getValue());
+                    ops.opsForZSet().score(lookup.getKey(), lookup.getValue());
+                }
+                return null;
+            }
+        });
+
+        List<MemberRank> ranks = new ArrayList<>(lookups.size());
+        for (int i = 0; i < lookups.size(); i++) {
+            Object rank = results.get(i * 2);
+            Object score = results.get(i * 2 + 1);
+            ranks.add(rank instanceof Number && score instanceof Number
+                    ? new MemberRank(((Number) rank).longValue(), ((Number) score).doubleValue())
+                    : null);
+        }
+        return ranks;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static byte[] serializeMember(RedisSerializer<?> serializer, String member) {
+        return ((RedisSerializer<Object>) serializer).serialize(member);
+    }
+
+    /**
+     * Sorted set operations produced by a single event, applied at most once per event id
+     */
+    public static final class RankingUpdate {
+        private final String eventId;
+        private final List<Operation> operations = new ArrayList<>();
+
+        public RankingUpdate(String eventId) {
+            this.eventId = eventId;
+        }
+
+        public RankingUpdate incrementBy(String key, String member, double delta) {
+            operations.add(new Operation(key, "ZINCRBY", member, delta));
+            return this;
+        }
+
+        public RankingUpdate add(String key, String member, double score) {
+            operations.add(new Operation(key, "ZADD", member, score));
+            return this;
+        }
+
+        /**
+         * Set the score only if it is greater than the current one, so stale events cannot lower it
+         */
+        public RankingUpdate addIfGreater(String key, String member, double score) {
+            operations.add(new Operation(key, "ZADDGT", member, score));
+            return this;
+        }
+
+        public RankingUpdate remove(String key, String member) {
+            operations.add(new Operation(key, "ZREM", member, 0));
+            return this;
+        }
+
+        public String getEventId() {
+            return eventId;
+        }
+
+        public List<Operation> getOperations() {
+            return Collections.unmodifiableList(operations);
+        }
+
+        public boolean isEmpty() {
+            return operations.isEmpty();
+        }
+    }
+
+    /**
+     * Zero-based reverse rank and score of a member in a sorted set
+     */
+    public static final class MemberRank {
+        private final long rank;
+        private final double score;
+
+        public MemberRank(long rank, double score) {
+            this.rank = rank;
+            this.score = score;
+        }
+
+        public long getRank() {
+            return rank;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * A single sorted set command of a ranking update
+     */
+    public static final class Operation {
+        private final String key;
+        private final String command;
+        private final String member;
+        private final double score;
+
+        Operation(String key, String command, String member, double score) {
+            this.key = key;
+            this.command = command;
+            this.member = member;
+            this.score = score;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public String getMember() {
+            return member;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.yushan.analytics_service.util;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -18,6 +26,9 @@ public class RedisUtil {
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private RedisKeyIndex redisKeyIndex;
+
     // Cache key prefixes
     private static final String ACHIEVEMENT_PREFIX = "achievement:";
     private static final String TRANSACTION_PREFIX = "transaction:";
@@ -76,7 +87,7 @@ public class RedisUtil {
      * Delete multiple keys
      */
     public void delete(Set<String> keys) {
-        redisTemplate.delete(keys);
+        redisKeyIndex.unlink(keys);
     }
 
     /**
@@ -108,10 +119,10 @@ public class RedisUtil {
     }
 
     /**
-     * Get keys matching pattern
+     * Get keys matching pattern, with incremental SCAN rather than a blocking KEYS
      */
     public Set<String> keys(String pattern) {
-        return redisTemplate.keys(pattern);
+        return redisKeyIndex.scan(pattern);
     }
 
     // Achievement-specific cache methods
@@ -146,6 +157,7 @@ public class RedisUtil {
     public void cacheUserAchievements(String userId, Object achievementsData) {
         String key = ACHIEVEMENT_PREFIX + "user:" + userId;
         set(key, achievementsData, ACHIEVEMENT_CACHE_TTL);
+        redisKeyIndex.tag(ACHIEVEMENT_PREFIX + "user", key, ACHIEVEMENT_CACHE_TTL);
     }
 
     /**
@@ -188,6 +200,7 @@ public class RedisUtil {
     public void cacheUserTransactions(String userId, Object transactionsData) {
         String key = TRANSACTION_PREFIX + "user:" + userId;
         set(key, transactionsData, TRANSACTION_CACHE_TTL);
+        redisKeyIndex.tag(TRANSACTION_PREFIX + "user", key, TRANSACTION_CACHE_TTL);
     }
 
     /**
@@ -274,6 +287,7 @@ public class RedisUtil {
     public void cacheGamificationData(String dataType, String identifier, Object data) {
         String key = GAMIFICATION_PREFIX + dataType + ":" + identifier;
         set(key, data, GAMIFICATION_CACHE_TTL);
+        redisKeyIndex.tag(GAMIFICATION_PREFIX + "data", key, GAMIFICATION_CACHE_TTL);
     }
 
     /**
@@ -293,10 +307,7 @@ public class RedisUtil {
         deleteAchievementCache(achievementId);
         
         // Invalidate user achievement caches
-        Set<String> achievementKeys = keys(ACHIEVEMENT_PREFIX + "user:*");
-        if (!achievementKeys.isEmpty()) {
-            delete(achievementKeys);
-        }
+        redisKeyIndex.invalidateTag(ACHIEVEMENT_PREFIX + "user", ACHIEVEMENT_PREFIX + "user:*");
     }
 
     /**
@@ -306,46 +317,32 @@ public class RedisUtil {
         deleteTransactionCache(transactionId);
         
         // Invalidate user transaction caches
-        Set<String> transactionKeys = keys(TRANSACTION_PREFIX + "user:*");
-        if (!transactionKeys.isEmpty()) {
-            delete(transactionKeys);
-        }
+        redisKeyIndex.invalidateTag(TRANSACTION_PREFIX + "user", TRANSACTION_PREFIX + "user:*");
     }
 
     /**
      * Invalidate all user-related caches
      */
     public void invalidateUserCaches(String userId) {
-        Set<String> userKeys = keys(USER_PREFIX + "*:" + userId);
-        if (!userKeys.isEmpty()) {
-            delete(userKeys);
-        }
-        
-        // Invalidate stats caches
-        Set<String> statsKeys = keys(STATS_PREFIX + "user:" + userId);
-        if (!statsKeys.isEmpty()) {
-            delete(statsKeys);
-        }
+        // A user's cache keys are known, so no keyspace scan is needed
+        redisKeyIndex.unlink(List.of(
+                USER_PREFIX + "profile:" + userId,
+                USER_PREFIX + "level:" + userId,
+                STATS_PREFIX + "user:" + userId));
     }
 
     /**
      * Invalidate all gamification caches
      */
     public void invalidateGamificationCaches() {
-        Set<String> gamificationKeys = keys(GAMIFICATION_PREFIX + "*");
-        if (!gamificationKeys.isEmpty()) {
-            delete(gamificationKeys);
-        }
+        redisKeyIndex.invalidateTag(GAMIFICATION_PREFIX + "data", GAMIFICATION_PREFIX + "*");
     }
 
     /**
      * Clear all caches (use with caution)
      */
     public void clearAllCaches() {
-        Set<String> allKeys = keys("*");
-        if (!allKeys.isEmpty()) {
-            delete(allKeys);
-        }
+        redisKeyIndex.unlinkMatching("*");
     }
 
     // Sorted Set (ZSet) operations for ranking
@@ -374,7 +371,41 @@ public class RedisUtil {
         }
         return result.stream()
                 .map(Object::toString)
-                .collect(java.util.stream.Collectors.toSet());
+                .collect(java.util.stream.Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Get a page of a sorted set in reverse order together with its cardinality.
+     * ZCARD and ZREVRANGE WITHSCORES are pipelined so the page costs a single round trip.
+     */
+    @SuppressWarnings("unchecked")
+    public ZSetPage zReversePageWithScores(String key, long start, long end) {
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                ZSetOperations<String, Object> zSetOps = (ZSetOperations<String, Object>) operations.opsForZSet();
+                zSetOps.zCard(key);
+                zSetOps.reverseRangeWithScores(key, start, end);
+                return null;
+            }
+        });
+
+        if (results == null || results.size() < 2) {
+            return new ZSetPage(0, null);
+        }
+        long total = results.get(0) instanceof Long ? (Long) results.get(0) : 0L;
+        Map<String, Double> entries = new LinkedHashMap<>();
+        Object range = results.get(1);
+        if (range instanceof Set) {
+            for (Object tuple : (Set<Object>) range) {
+                ZSetOperations.TypedTuple<Object> typedTuple = (ZSetOperations.TypedTuple<Object>) tuple;
+                Object member = typedTuple.getValue();
+                if (member != null) {
+                    entries.put(member.toString(), typedTuple.getScore());
+                }
+            }
+        }
+        return new ZSetPage(total, entries);
     }
 
     /**
@@ -395,8 +426,30 @@ public class RedisUtil {
      * Delete multiple keys by collection
      */
     public void delete(java.util.Collection<String> keys) {
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
+        redisKeyIndex.unlink(keys);
+    }
+
+    /**
+     * A page of sorted set members (highest score first) and the total size of the set
+     */
+    public static final class ZSetPage {
+        private final long total;
+        private final Map<String, Double> entries;
+
+        public ZSetPage(long total, Map<String, Double> entries) {
+            this.total = total;
+            this.entries = Collections.unmodifiableMap(entries != null ? new LinkedHashMap<>(entries) : new LinkedHashMap<>());
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * Members in rank order mapped to their scores
+         */
+        public Map<String, Double> getEntries() {
+            return entries;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package com.yushan.analytics_service.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing for downstream calls.
+ * While a call for a key is in flight, concurrent callers with the same key wait for it and
+ * share its result (or exception) instead of issuing their own identical call. Nothing is cached:
+ * the key is released as soon as the call completes.
+ *
+ * @param <K> call arguments, used as the key; must implement equals/hashCode
+ * @param <V> call result
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter collapsed;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        executed = calls(meterRegistry, name, "executed");
+        collapsed = calls(meterRegistry, name, "collapsed");
+    }
+
+    /**
+     * Run the call for a key, or join the identical call already in flight
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            collapsed.increment();
+            return join(existing);
+        }
+
+        executed.increment();
+        try {
+            V value = call.get();
+            own.complete(value);
+            return value;
+        } catch (Throwable e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Rethrow what the leading caller saw
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter calls(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder("analytics.singleflight.calls")
+                .description("Downstream calls that were executed or collapsed into an identical in-flight call")
+                .tag("call", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
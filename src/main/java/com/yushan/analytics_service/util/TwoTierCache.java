@@ -0,0 +1,176 @@
+package com.yushan.analytics_service.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Near-cache for entities owned by other services: a bounded in-process Caffeine cache (L1)
+ * in front of Redis (L2, shared by all instances).
+ * Lookups are batch-aware: L1 misses are read from Redis with one MGET and only the keys missing
+ * from both tiers are passed to the loader, which is expected to make a single batch call.
+ * Cached values are shared between callers and must not be mutated.
+ *
+ * @param <K> entity id type
+ * @param <V> entity type
+ */
+@Slf4j
+public class TwoTierCache<K, V> {
+
+    private static final String KEY_PREFIX = "cache:";
+
+    private final String name;
+    private final Class<V> valueType;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration redisTtl;
+    private final Cache<K, V> local;
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "The Redis template is a shared Spring bean")
+    public TwoTierCache(String name, Class<V> valueType, RedisTemplate<String, Object> redisTemplate,
+                        MeterRegistry meterRegistry, long localMaxSize, Duration localTtl, Duration redisTtl) {
+        this.name = name;
+        this.valueType = valueType;
+        this.redisTemplate = redisTemplate;
+        this.redisTtl = redisTtl;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+
+        localHits = requests(meterRegistry, "l1_hit");
+        redisHits = requests(meterRegistry, "l2_hit");
+        misses = requests(meterRegistry, "miss");
+        Gauge.builder("analytics.cache.local.size", local, Cache::estimatedSize)
+                .description("Number of entries in the in-process tier of a two-tier cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get one entity, loading it on a miss
+     *
+     * @return the entity, or null if the loader does not know it
+     */
+    public V get(K id, Function<List<K>, Map<K, V>> loader) {
+        return getAll(List.of(id), loader).get(id);
+    }
+
+    /**
+     * Get entities by id; ids missing from both tiers are loaded with a single loader call
+     *
+     * @param loader fetches the given ids from the owning service; exceptions are propagated
+     * @return found entities by id, in request order; unknown ids are absent
+     */
+    public Map<K, V> getAll(Collection<K> ids, Function<List<K>, Map<K, V>> loader) {
+        List<K> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<K, V> found = new LinkedHashMap<>(local.getAllPresent(distinctIds));
+        localHits.increment(found.size());
+
+        List<K> missing = distinctIds.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            Map<K, V> fromRedis = readRedis(missing);
+            redisHits.increment(fromRedis.size());
+            local.putAll(fromRedis);
+            found.putAll(fromRedis);
+            missing = missing.stream().filter(id -> !fromRedis.containsKey(id)).toList();
+        }
+
+        if (!missing.isEmpty()) {
+            misses.increment(missing.size());
+            Map<K, V> loaded = loader.apply(missing);
+            if (!loaded.isEmpty()) {
+                local.putAll(loaded);
+                writeRedis(loaded);
+                found.putAll(loaded);
+            }
+        }
+
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K id : distinctIds) {
+            V value = found.get(id);
+            if (value != null) {
+                result.put(id, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drop entities from both tiers
+     */
+    public void evict(Collection<K> ids) {
+        local.invalidateAll(ids);
+        try {
+            redisTemplate.delete(ids.stream().map(this::redisKey).toList());
+        } catch (Exception e) {
+            log.warn("Failed to evict {} entries from {} cache in Redis: {}", ids.size(), name, e.getMessage());
+        }
+    }
+
+    private Map<K, V> readRedis(List<K> ids) {
+        Map<K, V> values = new LinkedHashMap<>();
+        try {
+            List<Object> cached = redisTemplate.opsForValue().multiGet(ids.stream().map(this::redisKey).toList());
+            if (cached == null) {
+                return values;
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                Object value = cached.get(i);
+                if (valueType.isInstance(value)) {
+                    values.put(ids.get(i), valueType.cast(value));
+                }
+            }
+        } catch (Exception e) {
+            // Redis is an optimization here, the owning service is still the source of truth
+            log.warn("Failed to read {} entries of {} cache from Redis: {}", ids.size(), name, e.getMessage());
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeRedis(Map<K, V> values) {
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <RK, RV> Object execute(RedisOperations<RK, RV> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    values.forEach((id, value) -> ops.opsForValue().set(redisKey(id), value, redisTtl));
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Failed to write {} entries of {} cache to Redis: {}", values.size(), name, e.getMessage());
+        }
+    }
+
+    private String redisKey(K id) {
+        return KEY_PREFIX + name + ":" + id;
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("analytics.cache.requests")
+                .description("Two-tier cache lookups by the tier that answered them")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,22 @@
+-- Enforce a single history row per user and novel
+-- Required by the INSERT ... ON CONFLICT (user_id, novel_id) upserts of history ingestion
+
+-- ========================================
+-- DE-DUPLICATE HISTORY
+-- ========================================
+
+-- Keep the most recently updated row for each (user_id, novel_id)
+DELETE FROM history h
+USING history newer
+WHERE h.user_id = newer.user_id
+  AND h.novel_id = newer.novel_id
+  AND (h.update_time < newer.update_time
+       OR (h.update_time = newer.update_time AND h.id < newer.id));
+
+-- ========================================
+-- CONSTRAINTS
+-- ========================================
+
+-- The unique constraint's index replaces the non-unique lookup index
+DROP INDEX IF EXISTS idx_history_user_novel;
+ALTER TABLE history ADD CONSTRAINT uk_history_user_novel UNIQUE (user_id, novel_id);
@@ -0,0 +1,47 @@
+-- Pre-aggregated activity rollups for the admin analytics endpoints
+-- Maintained incrementally from history rows changed since the rollup watermark
+
+-- ========================================
+-- TABLE CREATIONS
+-- ========================================
+
+-- Reading sessions per user per day
+CREATE TABLE analytics_daily (
+     activity_date DATE NOT NULL,
+     user_id UUID NOT NULL,
+     sessions INTEGER NOT NULL DEFAULT 0,
+     PRIMARY KEY (activity_date, user_id)
+);
+
+-- Reading sessions per user per hour
+CREATE TABLE analytics_hourly (
+     activity_hour TIMESTAMP NOT NULL,
+     user_id UUID NOT NULL,
+     sessions INTEGER NOT NULL DEFAULT 0,
+     PRIMARY KEY (activity_hour, user_id)
+);
+
+-- Reads per novel per day
+CREATE TABLE analytics_novel_daily (
+     activity_date DATE NOT NULL,
+     novel_id INTEGER NOT NULL,
+     read_count INTEGER NOT NULL DEFAULT 0,
+     PRIMARY KEY (activity_date, novel_id)
+);
+
+-- History rows with update_time up to processed_through are included in the rollups
+CREATE TABLE analytics_rollup_watermark (
+     name VARCHAR(50) PRIMARY KEY,
+     processed_through TIMESTAMP NOT NULL
+);
+
+INSERT INTO analytics_rollup_watermark (name, processed_through)
+VALUES ('history', TIMESTAMP '1970-01-01 00:00:00');
+
+-- ========================================
+-- INDEXES
+-- ========================================
+
+-- Rollup job and queries scan history rows newer than the watermark
+CREATE INDEX IF NOT EXISTS idx_history_update_time ON history(update_time);
+CREATE INDEX IF NOT EXISTS idx_analytics_daily_user_id ON analytics_daily(user_id);
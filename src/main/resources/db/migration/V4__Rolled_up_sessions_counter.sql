@@ -0,0 +1,9 @@
+-- Running total of reading sessions folded into the rollups, maintained with the watermark
+-- All-time sessions are rolled_up_sessions plus the history rows changed after the watermark
+
+ALTER TABLE analytics_rollup_watermark
+    ADD COLUMN rolled_up_sessions BIGINT NOT NULL DEFAULT 0;
+
+UPDATE analytics_rollup_watermark
+SET rolled_up_sessions = (SELECT COALESCE(SUM(sessions), 0) FROM analytics_daily)
+WHERE name = 'history';
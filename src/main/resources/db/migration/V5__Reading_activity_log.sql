@@ -0,0 +1,37 @@
+-- Append-only log of reads consumed by the analytics rollups
+-- history keeps one mutable row per (user_id, novel_id), so counting its changes per rollup window
+-- depended on the rollup interval; every read now appends one reading_activity row instead.
+-- The rollup deletes the rows it folds in within the same transaction, so a read is either in the
+-- rollup tables or still in reading_activity, whenever its transaction commits.
+
+-- ========================================
+-- TABLE CREATIONS
+-- ========================================
+
+CREATE TABLE reading_activity (
+     id BIGSERIAL PRIMARY KEY,
+     user_id UUID NOT NULL,
+     novel_id INTEGER NOT NULL,
+     chapter_id INTEGER,
+     activity_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ========================================
+-- BACKFILL
+-- ========================================
+
+-- History changes after the old watermark were not rolled up yet
+INSERT INTO reading_activity (user_id, novel_id, chapter_id, activity_time)
+SELECT h.user_id, h.novel_id, h.chapter_id, h.update_time
+FROM history h, analytics_rollup_watermark w
+WHERE w.name = 'history'
+  AND h.update_time > w.processed_through;
+
+-- ========================================
+-- ROLLUP STATE
+-- ========================================
+
+-- The rollup no longer reads history by update_time
+ALTER TABLE analytics_rollup_watermark RENAME TO analytics_rollup_state;
+ALTER TABLE analytics_rollup_state DROP COLUMN processed_through;
+DROP INDEX IF EXISTS idx_history_update_time;
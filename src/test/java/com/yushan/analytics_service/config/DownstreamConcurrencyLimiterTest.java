@@ -0,0 +1,78 @@
+package com.yushan.analytics_service.config;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownstreamConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DownstreamConcurrencyLimiter limiter = new DownstreamConcurrencyLimiter(
+            Map.of("content-service", 1), 5, Duration.ofMillis(50), meterRegistry);
+
+    private static Request request(String service) {
+        RequestTemplate template = new RequestTemplate();
+        template.feignTarget(new Target.HardCodedTarget<>(Object.class, service, "http://" + service));
+        return Request.create(Request.HttpMethod.GET, "http://" + service + "/api", Map.of(), null,
+                StandardCharsets.UTF_8, template);
+    }
+
+    private static Response ok(Request request) {
+        return Response.builder().request(request).status(200).headers(Map.of()).build();
+    }
+
+    @Test
+    void testEnrich_RejectsCallsBeyondTheServiceLimit() throws Exception {
+        CountDownLatch inCall = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Client limited = limiter.enrich((Client) (request, options) -> {
+            inCall.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ok(request);
+        });
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<Response> first = executor.submit(() -> limited.execute(request("content-service"), new Request.Options()));
+            assertTrue(inCall.await(5, TimeUnit.SECONDS));
+
+            assertThrows(IOException.class, () -> limited.execute(request("content-service"), new Request.Options()));
+            assertEquals(1.0, meterRegistry.get("analytics.downstream.rejected").tag("service", "content-service").counter().count());
+
+            release.countDown();
+            assertEquals(200, first.get(5, TimeUnit.SECONDS).status());
+            assertEquals(200, limited.execute(request("content-service"), new Request.Options()).status());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testEnrich_LimitsServicesIndependently() throws Exception {
+        Client limited = limiter.enrich((Client) (request, options) -> ok(request));
+
+        assertEquals(200, limited.execute(request("user-service"), new Request.Options()).status());
+        assertEquals(0.0, meterRegistry.get("analytics.downstream.in-flight").tag("service", "user-service").gauge().value());
+    }
+}
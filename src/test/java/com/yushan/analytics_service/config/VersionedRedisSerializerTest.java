@@ -0,0 +1,80 @@
+package com.yushan.analytics_service.config;
+
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.dto.PageResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionedRedisSerializerTest {
+
+    private final RedisSerializer<Object> json = RedisConfig.valueSerializer(false, 1024);
+    private final RedisSerializer<Object> binary = RedisConfig.valueSerializer(true, 1024);
+
+    private static NovelDetailResponseDTO novel(int id) {
+        NovelDetailResponseDTO novel = new NovelDetailResponseDTO();
+        novel.setId(id);
+        novel.setUuid(UUID.randomUUID());
+        novel.setTitle("Novel " + id);
+        novel.setAuthorId(UUID.randomUUID());
+        novel.setViewCnt(1000 + id);
+        novel.setCategoryId(3);
+        novel.setSynopsis("A long synopsis that repeats across novels of the same series.");
+        return novel;
+    }
+
+    @Test
+    void testSerialize_SmileIsSmallerAndRoundTrips() {
+        NovelDetailResponseDTO novel = novel(1);
+
+        byte[] smile = binary.serialize(novel);
+
+        assertEquals(VersionedRedisSerializer.HEADER, smile[0]);
+        assertEquals(VersionedRedisSerializer.SMILE, smile[1]);
+        assertTrue(smile.length < json.serialize(novel).length);
+        assertEquals(novel, binary.deserialize(smile));
+    }
+
+    @Test
+    void testSerialize_CompressesLargeValues() {
+        List<NovelDetailResponseDTO> novels = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            novels.add(novel(i));
+        }
+        PageResponseDTO<NovelDetailResponseDTO> page = new PageResponseDTO<>(novels, 500, 0, 50);
+
+        byte[] bytes = binary.serialize(page);
+
+        assertEquals(VersionedRedisSerializer.SMILE_LZ4, bytes[1]);
+        @SuppressWarnings("unchecked")
+        PageResponseDTO<NovelDetailResponseDTO> decoded = (PageResponseDTO<NovelDetailResponseDTO>) binary.deserialize(bytes);
+        assertEquals(novels, decoded.getContent());
+        assertEquals(10, decoded.getTotalPages());
+    }
+
+    @Test
+    void testDeserialize_ReadsBothFormatsWhicheverIsWritten() {
+        NovelDetailResponseDTO novel = novel(2);
+
+        assertEquals(novel, binary.deserialize(json.serialize(novel)));
+        assertEquals(novel, json.deserialize(binary.serialize(novel)));
+    }
+
+    @Test
+    void testSerialize_ScalarsKeepJsonBytes() {
+        // Sorted set members must not change when the codec is switched
+        assertArrayEquals(json.serialize("42"), binary.serialize("42"));
+        assertArrayEquals(json.serialize(7L), binary.serialize(7L));
+    }
+
+    @Test
+    void testDeserialize_RejectsUnknownVersion() {
+        assertThrows(SerializationException.class, () -> binary.deserialize(new byte[]{0, 9, 1}));
+    }
+}
@@ -0,0 +1,147 @@
+package com.yushan.analytics_service.consumer;
+
+import com.yushan.analytics_service.config.KafkaConfig;
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.service.NovelCatalog;
+import com.yushan.analytics_service.service.RankingEventService;
+import com.yushan.analytics_service.service.TrendingRankingService;
+import com.yushan.analytics_service.util.RedisRankingUtil;
+import com.yushan.analytics_service.util.RedisRankingUtil.RankingUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {KafkaConfig.class, RankingEventConsumer.class, RankingEventService.class}, properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.config.import=optional:configserver:",
+        "spring.kafka.enabled=true",
+        "spring.kafka.consumer.auto-offset-reset=earliest",
+        "analytics.ranking.events.max-batch-size=50"
+})
+@ImportAutoConfiguration({KafkaAutoConfiguration.class, JacksonAutoConfiguration.class})
+@EmbeddedKafka(partitions = 1, bootstrapServersProperty = "spring.kafka.bootstrap-servers",
+        topics = {"novel-engagement-events", "novel-lifecycle-events", "user-exp-events"})
+class RankingEventConsumerTest {
+
+    @MockBean
+    private NovelCatalog novelCatalog;
+
+    @MockBean
+    private RedisRankingUtil redisRankingUtil;
+
+    @MockBean
+    private TrendingRankingService trendingRankingService;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final InMemoryRankings rankings = new InMemoryRankings();
+
+    private final UUID authorId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        NovelDetailResponseDTO novel = new NovelDetailResponseDTO();
+        novel.setId(7);
+        novel.setCategoryId(2);
+        novel.setAuthorId(authorId);
+        when(novelCatalog.getNovels(anyCollection())).thenReturn(Map.of(7, novel));
+        when(redisRankingUtil.applyRankingUpdates(anyList(), any(Duration.class)))
+                .thenAnswer(invocation -> rankings.apply(invocation.getArgument(0)));
+    }
+
+    @Test
+    void testEngagementEvents_AppliedWithEventIds() {
+        for (String eventId : List.of("v1", "v2", "v3")) {
+            kafkaTemplate.send("novel-engagement-events", "7",
+                    "{\"eventId\":\"" + eventId + "\",\"novelId\":7,\"type\":\"VIEW\"}");
+        }
+        kafkaTemplate.send("novel-engagement-events", "7", "not json");
+        kafkaTemplate.send("novel-engagement-events", "7", "{\"eventId\":\"v4\",\"novelId\":7,\"type\":\"VOTE\",\"delta\":2}");
+
+        await().atMost(Duration.ofSeconds(30)).until(() -> rankings.score("ranking:novel:vote:all", "7") != null);
+
+        assertEquals(3.0, rankings.score("ranking:novel:view:all", "7"));
+        assertEquals(3.0, rankings.score("ranking:novel:view:2", "7"));
+        assertEquals(3.0, rankings.score("ranking:author:view", authorId.toString()));
+        assertEquals(2.0, rankings.score("ranking:novel:vote:all", "7"));
+        // Each update carries its event id for the deduplicating script; the malformed record is skipped
+        assertEquals(List.of("v1", "v2", "v3", "v4"), rankings.appliedEventIds());
+    }
+
+    @Test
+    void testLifecycleAndExpEvents_AppliedInOrder() {
+        String novel = "{\"id\":8,\"categoryId\":3,\"authorId\":\"" + authorId + "\",\"viewCnt\":5,\"voteCnt\":1}";
+        kafkaTemplate.send("novel-lifecycle-events", "8", "{\"eventId\":\"c8\",\"type\":\"CREATED\",\"novel\":" + novel + "}");
+        kafkaTemplate.send("novel-lifecycle-events", "8", "{\"eventId\":\"d8\",\"type\":\"DELETED\",\"novel\":" + novel + "}");
+
+        kafkaTemplate.send("user-exp-events", "u1", "{\"eventId\":\"x1\",\"userId\":\"u1\",\"level\":1,\"currentExp\":10}");
+        kafkaTemplate.send("user-exp-events", "u1", "{\"eventId\":\"x2\",\"userId\":\"u1\",\"level\":2,\"currentExp\":0}");
+        kafkaTemplate.send("user-exp-events", "u1", "{\"eventId\":\"x3\",\"userId\":\"u1\",\"level\":1,\"currentExp\":50}");
+
+        await().atMost(Duration.ofSeconds(30)).until(() -> rankings.appliedEventIds().containsAll(List.of("d8", "x3")));
+
+        // Created then deleted
+        assertNull(rankings.score("ranking:novel:view:all", "8"));
+        assertNull(rankings.score("ranking:novel:vote:3", "8"));
+        assertEquals(0.0, rankings.score("ranking:author:novelNum", authorId.toString()));
+        // Stale exp events cannot lower the user's score
+        assertEquals(2000000.0, rankings.score("ranking:user:exp", "u1"));
+        verify(novelCatalog, atLeastOnce()).apply(anyCollection(), eq(List.of(8)));
+    }
+
+    /**
+     * In-memory stand-in for the Redis script that applies operations in order.
+     * Event-id deduplication happens in the script itself and is covered by RedisRankingUtilTest.
+     */
+    private static final class InMemoryRankings {
+        private final Map<String, Map<String, Double>> sets = new HashMap<>();
+        private final List<String> applied = new ArrayList<>();
+
+        synchronized int apply(List<RankingUpdate> updates) {
+            int count = 0;
+            for (RankingUpdate update : updates) {
+                for (RedisRankingUtil.Operation op : update.getOperations()) {
+                    Map<String, Double> set = sets.computeIfAbsent(op.getKey(), k -> new HashMap<>());
+                    switch (op.getCommand()) {
+                        case "ZINCRBY" -> set.merge(op.getMember(), op.getScore(), Double::sum);
+                        case "ZADD" -> set.put(op.getMember(), op.getScore());
+                        case "ZADDGT" -> set.merge(op.getMember(), op.getScore(), Math::max);
+                        case "ZREM" -> set.remove(op.getMember());
+                        default -> fail("Unexpected command " + op.getCommand());
+                    }
+                }
+                applied.add(update.getEventId());
+                count++;
+            }
+            return count;
+        }
+
+        synchronized Double score(String key, String member) {
+            return sets.getOrDefault(key, Map.of()).get(member);
+        }
+
+        synchronized List<String> appliedEventIds() {
+            return List.copyOf(applied);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.dto.DailyActiveUsersResponseDTO;
+import com.yushan.analytics_service.dto.PlatformStatisticsResponseDTO;
+import com.yushan.analytics_service.repository.AnalyticsRepository;
+import com.yushan.analytics_service.util.RedisActivityUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveUserServiceTest {
+
+    @Mock
+    private RedisActivityUtil redisActivityUtil;
+
+    @Mock
+    private AnalyticsRepository analyticsRepository;
+
+    @InjectMocks
+    private ActiveUserService activeUserService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(activeUserService, "mode", "hll");
+        ReflectionTestUtils.setField(activeUserService, "dailyRetentionDays", 400L);
+        ReflectionTestUtils.setField(activeUserService, "hourlyRetentionDays", 35L);
+    }
+
+    @Test
+    void testCountActiveUsers_UsesHyperLogLogsWithinTrackedRange() {
+        when(redisActivityUtil.getTrackingSince()).thenReturn(today.minusDays(30));
+        when(redisActivityUtil.countDistinctUsers(today.minusDays(7), today)).thenReturn(42L);
+
+        assertEquals(42L, activeUserService.countActiveUsers(
+                java.sql.Date.valueOf(today.minusDays(7)), java.sql.Date.valueOf(today), false));
+        verifyNoInteractions(analyticsRepository);
+    }
+
+    @Test
+    void testCountActiveUsers_FallsBackToDatabaseBeforeTrackingStarted() {
+        when(redisActivityUtil.getTrackingSince()).thenReturn(today);
+        Date start = java.sql.Date.valueOf(today.minusDays(7));
+        Date end = java.sql.Date.valueOf(today);
+        when(analyticsRepository.getActiveUserCount(start, end)).thenReturn(40L);
+
+        assertEquals(40L, activeUserService.countActiveUsers(start, end, false));
+        verify(redisActivityUtil, never()).countDistinctUsers(any(), any());
+    }
+
+    @Test
+    void testCountActiveUsers_ExactRequestUsesDatabase() {
+        Date day = java.sql.Date.valueOf(today);
+        when(analyticsRepository.getDailyActiveUsers(day)).thenReturn(5L);
+
+        assertEquals(5L, activeUserService.countActiveUsers(day, day, true));
+        verifyNoInteractions(redisActivityUtil);
+    }
+
+    @Test
+    void testGetPlatformActivityTotals_ExactRequestUsesOneQuery() {
+        Date day = java.sql.Date.valueOf(today);
+        Date weekStart = java.sql.Date.valueOf(today.minusDays(7));
+        Date monthStart = java.sql.Date.valueOf(today.minusMonths(1));
+        PlatformStatisticsResponseDTO.ActivityTotals totals = new PlatformStatisticsResponseDTO.ActivityTotals();
+        totals.setMonthlyActiveUsers(12L);
+        when(analyticsRepository.getPlatformActivityTotals(day, weekStart, monthStart)).thenReturn(totals);
+
+        assertSame(totals, activeUserService.getPlatformActivityTotals(day, weekStart, monthStart, true));
+        verify(analyticsRepository, times(1)).getPlatformActivityTotals(day, weekStart, monthStart);
+        verifyNoMoreInteractions(analyticsRepository);
+        verifyNoInteractions(redisActivityUtil);
+    }
+
+    @Test
+    void testGetPlatformActivityTotals_HyperLogLogsWithSessionsCounter() {
+        when(redisActivityUtil.getTrackingSince()).thenReturn(today.minusDays(60));
+        when(redisActivityUtil.countDistinctUsers(today, today)).thenReturn(3L);
+        when(redisActivityUtil.countDistinctUsers(today.minusDays(7), today)).thenReturn(9L);
+        when(redisActivityUtil.countDistinctUsers(today.minusMonths(1), today)).thenReturn(20L);
+        when(analyticsRepository.getAllTimeReadingSessions()).thenReturn(1000L);
+
+        PlatformStatisticsResponseDTO.ActivityTotals totals = activeUserService.getPlatformActivityTotals(
+                java.sql.Date.valueOf(today), java.sql.Date.valueOf(today.minusDays(7)),
+                java.sql.Date.valueOf(today.minusMonths(1)), false);
+
+        assertEquals(3L, totals.getDailyActiveUsers());
+        assertEquals(9L, totals.getWeeklyActiveUsers());
+        assertEquals(20L, totals.getMonthlyActiveUsers());
+        assertEquals(1000L, totals.getTotalReadingSessions());
+        verify(analyticsRepository, never()).getTotalReadingSessions(any(), any());
+    }
+
+    @Test
+    void testGetHourlyActiveUsers_SkipsEmptyHours() {
+        when(redisActivityUtil.getTrackingSince()).thenReturn(today);
+        List<Long> users = new ArrayList<>(Collections.nCopies(24, 0L));
+        List<Long> sessions = new ArrayList<>(Collections.nCopies(24, 0L));
+        users.set(9, 3L);
+        sessions.set(9, 7L);
+        when(redisActivityUtil.countHourly(today)).thenReturn(List.of(users, sessions));
+
+        List<DailyActiveUsersResponseDTO.ActivityDataPoint> hourly =
+                activeUserService.getHourlyActiveUsers(java.sql.Date.valueOf(today), false);
+
+        assertEquals(1, hourly.size());
+        assertEquals(9, hourly.get(0).getHour());
+        assertEquals(3L, hourly.get(0).getActiveUsers());
+        assertEquals(7L, hourly.get(0).getReadingSessions());
+    }
+
+    @Test
+    void testRecordActivity_RedisFailureDoesNotPropagate() {
+        doThrow(new RuntimeException("down")).when(redisActivityUtil).recordActivity(anyList(), any(), any());
+
+        assertDoesNotThrow(() -> activeUserService.recordActivity(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.repository.AnalyticsRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsRollupServiceTest {
+
+    @Mock
+    private AnalyticsRollupRepository analyticsRollupRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private AnalyticsRollupService analyticsRollupService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(analyticsRollupService, "batchSize", 100);
+        ReflectionTestUtils.setField(analyticsRollupService, "maxBatchesPerRun", 10);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void testRollup_MovesBatchesUntilActivityLogIsEmpty() {
+        when(analyticsRollupRepository.rollupNextBatch(100)).thenReturn(100, 40, 0);
+
+        assertEquals(2, analyticsRollupService.rollup());
+
+        // Each batch runs under the rollup lock
+        verify(analyticsRollupRepository, times(3)).lock();
+        verify(analyticsRollupRepository, times(3)).rollupNextBatch(100);
+    }
+
+    @Test
+    void testRollup_StopsAtMaxBatchesPerRun() {
+        ReflectionTestUtils.setField(analyticsRollupService, "maxBatchesPerRun", 1);
+        when(analyticsRollupRepository.rollupNextBatch(100)).thenReturn(100);
+
+        assertEquals(1, analyticsRollupService.rollup());
+
+        verify(analyticsRollupRepository, times(1)).rollupNextBatch(100);
+    }
+}
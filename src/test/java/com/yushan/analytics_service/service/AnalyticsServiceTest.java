@@ -0,0 +1,135 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.client.ContentServiceClient;
+import com.yushan.analytics_service.client.EngagementServiceClient;
+import com.yushan.analytics_service.client.UserServiceClient;
+import com.yushan.analytics_service.dto.AnalyticsRequestDTO;
+import com.yushan.analytics_service.dto.AnalyticsSummaryResponseDTO;
+import com.yushan.analytics_service.dto.ApiResponse;
+import com.yushan.analytics_service.dto.PlatformStatisticsResponseDTO;
+import com.yushan.analytics_service.repository.AnalyticsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    @Mock
+    private AnalyticsRepository analyticsRepository;
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    @Mock
+    private ContentServiceClient contentServiceClient;
+
+    @Mock
+    private EngagementServiceClient engagementServiceClient;
+
+    @Mock
+    private NovelCatalog novelCatalog;
+
+    @Mock
+    private ActiveUserService activeUserService;
+
+    @Spy
+    private Executor downstreamExecutor = new SyncTaskExecutor();
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    @Test
+    void testGetAnalyticsSummary_BothPeriodsInOneQuery() {
+        AnalyticsSummaryResponseDTO.PeriodTotals totals = new AnalyticsSummaryResponseDTO.PeriodTotals();
+        totals.setActiveUsers(30L);
+        totals.setUniqueNovelsRead(10L);
+        totals.setReadingSessions(90L);
+        totals.setPreviousActiveUsers(20L);
+        totals.setPreviousUniqueNovelsRead(0L);
+        totals.setPreviousReadingSessions(120L);
+        when(analyticsRepository.getSummaryTotals(any(), any(), any(), any())).thenReturn(totals);
+        EngagementServiceClient.ModerationStatistics moderation = new EngagementServiceClient.ModerationStatistics();
+        moderation.totalComments = 7L;
+        when(engagementServiceClient.getModerationStatistics()).thenReturn(ApiResponse.success("ok", moderation));
+
+        AnalyticsRequestDTO request = new AnalyticsRequestDTO();
+        request.setStartDate(new Date(System.currentTimeMillis() - 7L * 24 * 60 * 60 * 1000));
+        request.setEndDate(new Date());
+        AnalyticsSummaryResponseDTO summary = analyticsService.getAnalyticsSummary(request);
+
+        assertEquals(30L, summary.getActiveUsers());
+        assertEquals(50.0, summary.getUserGrowthRate());
+        assertEquals(100.0, summary.getNovelGrowthRate());
+        assertEquals(-25.0, summary.getSessionGrowthRate());
+        assertEquals(7L, summary.getTotalComments());
+        verify(analyticsRepository, times(1)).getSummaryTotals(any(), any(), any(), any());
+        verifyNoMoreInteractions(analyticsRepository);
+    }
+
+    @Test
+    void testGetAnalyticsSummary_EngagementFailureDoesNotFailSummary() {
+        when(analyticsRepository.getSummaryTotals(any(), any(), any(), any()))
+                .thenReturn(new AnalyticsSummaryResponseDTO.PeriodTotals());
+        when(engagementServiceClient.getModerationStatistics()).thenThrow(new IllegalStateException("down"));
+
+        AnalyticsSummaryResponseDTO summary = analyticsService.getAnalyticsSummary(new AnalyticsRequestDTO());
+
+        assertEquals(0L, summary.getTotalComments());
+        assertEquals(0.0, summary.getUserGrowthRate());
+    }
+
+    @Test
+    void testGetPlatformStatistics_CachedBetweenPolls() {
+        ReflectionTestUtils.setField(analyticsService, "overviewCacheTtlSeconds", 30L);
+        analyticsService.init();
+        PlatformStatisticsResponseDTO.ActivityTotals totals = new PlatformStatisticsResponseDTO.ActivityTotals();
+        totals.setDailyActiveUsers(3L);
+        totals.setTotalReadingSessions(1000L);
+        when(activeUserService.getPlatformActivityTotals(any(), any(), any(), eq(false))).thenReturn(totals);
+        when(contentServiceClient.getNovelCount()).thenReturn(ApiResponse.success("ok", 50L));
+        when(engagementServiceClient.getModerationStatistics()).thenThrow(new IllegalStateException("down"));
+
+        PlatformStatisticsResponseDTO first = analyticsService.getPlatformStatistics(false);
+        PlatformStatisticsResponseDTO second = analyticsService.getPlatformStatistics(false);
+
+        assertSame(first, second);
+        assertEquals(3L, first.getDailyActiveUsers());
+        assertEquals(1000L, first.getTotalReadingSessions());
+        assertEquals(50L, first.getTotalNovels());
+        assertEquals(0L, first.getTotalComments());
+        verify(activeUserService, times(1)).getPlatformActivityTotals(any(), any(), any(), eq(false));
+        verify(contentServiceClient, times(1)).getNovelCount();
+        verifyNoInteractions(analyticsRepository);
+    }
+
+    @Test
+    void testGetPlatformStatistics_ExactIsNeverCached() {
+        ReflectionTestUtils.setField(analyticsService, "overviewCacheTtlSeconds", 30L);
+        analyticsService.init();
+        PlatformStatisticsResponseDTO.ActivityTotals totals = new PlatformStatisticsResponseDTO.ActivityTotals();
+        totals.setDailyActiveUsers(4L);
+        when(activeUserService.getPlatformActivityTotals(any(), any(), any(), eq(true))).thenReturn(totals);
+        when(contentServiceClient.getNovelCount()).thenReturn(ApiResponse.success("ok", 50L));
+        when(engagementServiceClient.getModerationStatistics()).thenThrow(new IllegalStateException("down"));
+
+        PlatformStatisticsResponseDTO first = analyticsService.getPlatformStatistics(true);
+        PlatformStatisticsResponseDTO second = analyticsService.getPlatformStatistics(true);
+
+        assertNotSame(first, second);
+        assertEquals(4L, second.getDailyActiveUsers());
+        verify(activeUserService, times(2)).getPlatformActivityTotals(any(), any(), any(), eq(true));
+    }
+}
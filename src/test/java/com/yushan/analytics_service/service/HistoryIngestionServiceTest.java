@@ -0,0 +1,175 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.dto.ChapterDTO;
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.dto.UserProfileResponseDTO;
+import com.yushan.analytics_service.entity.History;
+import com.yushan.analytics_service.exception.ResourceNotFoundException;
+import com.yushan.analytics_service.exception.ValidationException;
+import com.yushan.analytics_service.repository.HistoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HistoryIngestionServiceTest {
+
+    @Mock
+    private HistoryService historyService;
+
+    @Mock
+    private HistoryRepository historyRepository;
+
+    @Mock
+    private RemoteEntityCache remoteEntityCache;
+
+    @Mock
+    private NovelCatalog novelCatalog;
+
+    @Mock
+    private ActiveUserService activeUserService;
+
+    @Mock
+    private TrendingRankingService trendingRankingService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private HistoryIngestionService historyIngestionService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(historyIngestionService, "mode", "async");
+        ReflectionTestUtils.setField(historyIngestionService, "queueCapacity", 2);
+        ReflectionTestUtils.setField(historyIngestionService, "batchSize", 10);
+        ReflectionTestUtils.setField(historyIngestionService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(historyIngestionService, "retryBackoffMs", 0L);
+        historyIngestionService.init();
+    }
+
+    private ChapterDTO chapter(int id, int novelId) {
+        ChapterDTO chapter = new ChapterDTO();
+        chapter.setId(id);
+        chapter.setNovelId(novelId);
+        return chapter;
+    }
+
+    private void mockValidNovels() {
+        when(remoteEntityCache.getUsers(List.of(userId))).thenReturn(Map.of(userId, new UserProfileResponseDTO()));
+        when(novelCatalog.getNovels(anyList())).thenReturn(Map.of(1, new NovelDetailResponseDTO()));
+        lenient().when(remoteEntityCache.getChapters(anyList())).thenAnswer(invocation -> {
+            Integer chapterId = invocation.<List<Integer>>getArgument(0).get(0);
+            return Map.of(chapterId, chapter(chapterId, 1));
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_CoalescesChapterTurnsIntoOneUpsert() {
+        mockValidNovels();
+
+        assertTrue(historyIngestionService.submit(userId, 1, 11));
+        assertTrue(historyIngestionService.submit(userId, 1, 12));
+        historyIngestionService.flush();
+
+        ArgumentCaptor<List<History>> written = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<History>> reads = ArgumentCaptor.forClass(List.class);
+        verify(historyRepository).upsertBatch(written.capture(), reads.capture());
+        assertEquals(1, written.getValue().size());
+        assertEquals(12, written.getValue().get(0).getChapterId());
+        // Both reads are logged for the rollups
+        assertEquals(2, reads.getValue().size());
+        verifyNoInteractions(historyService);
+    }
+
+    @Test
+    void testSubmit_RejectsChapterFromAnotherNovel() {
+        when(remoteEntityCache.getUsers(List.of(userId))).thenReturn(Map.of(userId, new UserProfileResponseDTO()));
+        when(novelCatalog.getNovels(anyList())).thenReturn(Map.of(1, new NovelDetailResponseDTO()));
+        when(remoteEntityCache.getChapters(List.of(21))).thenReturn(Map.of(21, chapter(21, 2)));
+
+        assertThrows(ValidationException.class, () -> historyIngestionService.submit(userId, 1, 21));
+        historyIngestionService.flush();
+
+        verifyNoInteractions(historyRepository);
+    }
+
+    @Test
+    void testFlush_RetriesFailedBatchBeforeDrainingMore() {
+        mockValidNovels();
+        when(historyRepository.upsertBatch(anyList(), anyList()))
+                .thenThrow(new RuntimeException("connection refused"))
+                .thenReturn(1);
+
+        assertTrue(historyIngestionService.submit(userId, 1, 11));
+        historyIngestionService.flush();
+        historyIngestionService.flush();
+
+        verify(historyRepository, times(2)).upsertBatch(anyList(), anyList());
+        assertEquals(1.0, meterRegistry.get("analytics.history.ingestion.retried").counter().count());
+        assertEquals(0.0, meterRegistry.get("analytics.history.ingestion.dropped").counter().count());
+    }
+
+    @Test
+    void testFlush_DropsBatchAfterMaxAttempts() {
+        mockValidNovels();
+        when(historyRepository.upsertBatch(anyList(), anyList())).thenThrow(new RuntimeException("connection refused"));
+
+        assertTrue(historyIngestionService.submit(userId, 1, 11));
+        for (int i = 0; i < 4; i++) {
+            historyIngestionService.flush();
+        }
+
+        verify(historyRepository, times(3)).upsertBatch(anyList(), anyList());
+        assertEquals(1.0, meterRegistry.get("analytics.history.ingestion.dropped").counter().count());
+    }
+
+    @Test
+    void testSubmit_FallsBackToSyncWriteWhenQueueFull() {
+        mockValidNovels();
+
+        assertTrue(historyIngestionService.submit(userId, 1, 11));
+        assertTrue(historyIngestionService.submit(userId, 1, 12));
+        assertFalse(historyIngestionService.submit(userId, 1, 13));
+
+        verify(historyService).addOrUpdateHistory(userId, 1, 13);
+    }
+
+    @Test
+    void testSubmit_RejectsUnknownNovel() {
+        when(remoteEntityCache.getUsers(List.of(userId))).thenReturn(Map.of(userId, new UserProfileResponseDTO()));
+        when(novelCatalog.getNovels(anyList())).thenReturn(Map.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> historyIngestionService.submit(userId, 9, 1));
+    }
+
+    @Test
+    void testSubmit_SyncModeWritesImmediately() {
+        ReflectionTestUtils.setField(historyIngestionService, "mode", "sync");
+
+        assertFalse(historyIngestionService.submit(userId, 1, 11));
+
+        verify(historyService).addOrUpdateHistory(userId, 1, 11);
+        verifyNoInteractions(remoteEntityCache);
+    }
+}
@@ -0,0 +1,87 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.dto.ChapterDTO;
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.dto.UserProfileResponseDTO;
+import com.yushan.analytics_service.entity.History;
+import com.yushan.analytics_service.exception.ValidationException;
+import com.yushan.analytics_service.repository.HistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HistoryServiceTest {
+
+    @Mock
+    private HistoryRepository historyRepository;
+
+    @Mock
+    private RemoteEntityCache remoteEntityCache;
+
+    @Mock
+    private LibraryService libraryService;
+
+    @Mock
+    private NovelCatalog novelCatalog;
+
+    @Mock
+    private ActiveUserService activeUserService;
+
+    @Mock
+    private TrendingRankingService trendingRankingService;
+
+    @InjectMocks
+    private HistoryService historyService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(remoteEntityCache.getUsers(List.of(userId))).thenReturn(Map.of(userId, new UserProfileResponseDTO()));
+        when(remoteEntityCache.getNovels(List.of(1))).thenReturn(Map.of(1, new NovelDetailResponseDTO()));
+    }
+
+    private void mockChapter(int chapterId, int novelId) {
+        ChapterDTO chapter = new ChapterDTO();
+        chapter.setId(chapterId);
+        chapter.setNovelId(novelId);
+        when(remoteEntityCache.getChapters(List.of(chapterId))).thenReturn(Map.of(chapterId, chapter));
+    }
+
+    @Test
+    void testAddOrUpdateHistory_UpsertsInSingleStatement() {
+        mockChapter(11, 1);
+
+        historyService.addOrUpdateHistory(userId, 1, 11);
+
+        ArgumentCaptor<History> captor = ArgumentCaptor.forClass(History.class);
+        verify(historyRepository).upsert(captor.capture());
+        assertEquals(userId, captor.getValue().getUserId());
+        assertEquals(1, captor.getValue().getNovelId());
+        assertEquals(11, captor.getValue().getChapterId());
+        verify(historyRepository, never()).findByUserAndNovel(any(), any());
+        verify(historyRepository, never()).save(any());
+        verify(activeUserService).recordActivity(userId);
+    }
+
+    @Test
+    void testAddOrUpdateHistory_RejectsChapterFromAnotherNovel() {
+        mockChapter(11, 2);
+
+        assertThrows(ValidationException.class, () -> historyService.addOrUpdateHistory(userId, 1, 11));
+        verify(historyRepository, never()).upsert(any());
+    }
+}
@@ -0,0 +1,184 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.client.ContentServiceClient;
+import com.yushan.analytics_service.dto.ApiResponse;
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.dto.PageResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NovelCatalogTest {
+
+    @Mock
+    private ContentServiceClient contentServiceClient;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private NovelCatalog novelCatalog;
+
+    private final UUID authorId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(novelCatalog, "missTtlSeconds", 60L);
+        novelCatalog.registerMetrics();
+    }
+
+    private NovelDetailResponseDTO novel(int id, Integer categoryId) {
+        NovelDetailResponseDTO novel = new NovelDetailResponseDTO();
+        novel.setId(id);
+        novel.setCategoryId(categoryId);
+        novel.setAuthorId(authorId);
+        return novel;
+    }
+
+    private void mockPage(List<NovelDetailResponseDTO> novels) {
+        PageResponseDTO<NovelDetailResponseDTO> pageData = new PageResponseDTO<>();
+        pageData.setContent(novels);
+        pageData.setHasNext(false);
+        when(contentServiceClient.getNovels(anyInt(), anyInt(), anyString(), anyString()))
+                .thenReturn(ApiResponse.success("ok", pageData));
+    }
+
+    @Test
+    void testRefresh_BuildsIndexes() {
+        mockPage(List.of(novel(3, 1), novel(1, 2), novel(2, 1)));
+
+        NovelCatalogSnapshot snapshot = novelCatalog.refresh();
+
+        assertEquals(3, snapshot.size());
+        assertEquals(1, snapshot.getVersion());
+        assertEquals(List.of(1, 2, 3), snapshot.getNovels().stream().map(NovelDetailResponseDTO::getId).toList());
+        assertEquals(2, novelCatalog.getNovelsByCategory(1).size());
+        assertEquals(3, novelCatalog.getNovelsByAuthor(authorId).size());
+        assertNull(novelCatalog.getNovel(4));
+        assertEquals(3.0, meterRegistry.get("analytics.catalog.snapshot.size").gauge().value());
+    }
+
+    @Test
+    void testRefresh_KeepsSnapshotWhenCrawlFails() {
+        mockPage(List.of(novel(1, 1)));
+        novelCatalog.refresh();
+
+        when(contentServiceClient.getNovels(anyInt(), anyInt(), anyString(), anyString()))
+                .thenReturn(ApiResponse.error(503, "unavailable"));
+        NovelCatalogSnapshot snapshot = novelCatalog.refresh();
+
+        assertEquals(1, snapshot.size());
+        assertEquals(1, snapshot.getVersion());
+    }
+
+    @Test
+    void testRefresh_KeepsChangesAppliedDuringCrawl() {
+        PageResponseDTO<NovelDetailResponseDTO> pageData = new PageResponseDTO<>();
+        pageData.setContent(List.of(novel(1, 1), novel(2, 1)));
+        pageData.setHasNext(false);
+        when(contentServiceClient.getNovels(anyInt(), anyInt(), anyString(), anyString())).thenAnswer(invocation -> {
+            // Events land while the crawl is still reading older content-service data
+            novelCatalog.apply(List.of(novel(9, 2)), List.of(1));
+            return ApiResponse.success("ok", pageData);
+        });
+
+        NovelCatalogSnapshot snapshot = novelCatalog.refresh();
+
+        assertSame(snapshot, novelCatalog.snapshot());
+        assertNull(novelCatalog.getNovel(1));
+        assertNotNull(novelCatalog.getNovel(2));
+        assertNotNull(novelCatalog.getNovel(9));
+    }
+
+    @Test
+    void testGetNovels_FetchesOnlyMissesAndMergesThem() {
+        mockPage(List.of(novel(1, 1)));
+        novelCatalog.refresh();
+        when(contentServiceClient.getNovelsBatch(List.of(5)))
+                .thenReturn(ApiResponse.success("ok", List.of(novel(5, 2))));
+
+        Map<Integer, NovelDetailResponseDTO> result = novelCatalog.getNovels(List.of(5, 1));
+
+        assertEquals(List.of(5, 1), List.copyOf(result.keySet()));
+        assertNotNull(novelCatalog.getNovel(5));
+        assertEquals(2, novelCatalog.snapshot().getVersion());
+
+        novelCatalog.getNovels(List.of(1, 5));
+        verify(contentServiceClient, times(1)).getNovelsBatch(anyList());
+    }
+
+    @Test
+    void testApply_RebuildsOnlyChangedGroups() {
+        mockPage(List.of(novel(1, 1), novel(2, 1), novel(3, 2)));
+        novelCatalog.refresh();
+        List<NovelDetailResponseDTO> category2 = novelCatalog.getNovelsByCategory(2);
+        NovelDetailResponseDTO moved = novel(2, 3);
+        NovelDetailResponseDTO other = novel(5, 9);
+        other.setAuthorId(UUID.randomUUID());
+
+        novelCatalog.apply(List.of(moved, novel(4, 1), other), List.of(1));
+
+        NovelCatalogSnapshot snapshot = novelCatalog.snapshot();
+        assertEquals(List.of(2, 3, 4, 5), snapshot.getNovels().stream().map(NovelDetailResponseDTO::getId).toList());
+        assertEquals(List.of(4), novelCatalog.getNovelsByCategory(1).stream().map(NovelDetailResponseDTO::getId).toList());
+        assertSame(category2, novelCatalog.getNovelsByCategory(2));
+        assertSame(moved, novelCatalog.getNovelsByCategory(3).get(0));
+        assertEquals(List.of(2, 3, 4), novelCatalog.getNovelsByAuthor(authorId).stream().map(NovelDetailResponseDTO::getId).toList());
+        assertEquals(List.of(1, 2, 3, 9), List.copyOf(snapshot.getNovelsByCategory().keySet()));
+
+        novelCatalog.remove(List.of(4));
+        assertTrue(novelCatalog.getNovelsByCategory(1).isEmpty());
+        assertEquals(3, novelCatalog.snapshot().categoryCount());
+    }
+
+    @Test
+    void testGetNovels_DoesNotRefetchUnknownIds() {
+        when(contentServiceClient.getNovelsBatch(List.of(7)))
+                .thenReturn(ApiResponse.success("ok", List.of()));
+
+        assertTrue(novelCatalog.getNovels(List.of(7)).isEmpty());
+        assertTrue(novelCatalog.getNovels(List.of(7)).isEmpty());
+        verify(contentServiceClient, times(1)).getNovelsBatch(anyList());
+
+        // A novel created later is found as soon as it is merged in
+        novelCatalog.upsert(List.of(novel(7, 1)));
+        assertEquals(1, novelCatalog.getNovels(List.of(7)).size());
+    }
+
+    @Test
+    void testRefreshRecent_StopsAtFirstPageWithoutChanges() {
+        mockPage(List.of(novel(1, 1), novel(2, 1)));
+        novelCatalog.refresh();
+        NovelDetailResponseDTO updated = novel(2, 1);
+        updated.setTitle("Renamed");
+        PageResponseDTO<NovelDetailResponseDTO> changedPage = new PageResponseDTO<>();
+        changedPage.setContent(List.of(updated));
+        changedPage.setHasNext(true);
+        PageResponseDTO<NovelDetailResponseDTO> unchangedPage = new PageResponseDTO<>();
+        unchangedPage.setContent(List.of(novel(1, 1)));
+        unchangedPage.setHasNext(true);
+        when(contentServiceClient.getNovels(anyInt(), anyInt(), eq("updateTime"), anyString()))
+                .thenReturn(ApiResponse.success("ok", changedPage), ApiResponse.success("ok", unchangedPage));
+
+        assertEquals(1, novelCatalog.refreshRecent());
+
+        assertEquals("Renamed", novelCatalog.getNovel(2).getTitle());
+        verify(contentServiceClient, times(2)).getNovels(anyInt(), anyInt(), eq("updateTime"), anyString());
+    }
+}
@@ -0,0 +1,117 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.dto.NovelLifecycleEventDTO;
+import com.yushan.analytics_service.enums.NovelLifecycleType;
+import com.yushan.analytics_service.util.RedisRankingUtil;
+import com.yushan.analytics_service.util.RedisRankingUtil.RankingUpdate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RankingEventServiceTest {
+
+    @Mock
+    private NovelCatalog novelCatalog;
+
+    @Mock
+    private RedisRankingUtil redisRankingUtil;
+
+    @Mock
+    private TrendingRankingService trendingRankingService;
+
+    @InjectMocks
+    private RankingEventService rankingEventService;
+
+    private NovelLifecycleEventDTO event(String eventId, NovelLifecycleType type, NovelDetailResponseDTO novel) {
+        NovelLifecycleEventDTO event = new NovelLifecycleEventDTO();
+        event.setEventId(eventId);
+        event.setType(type);
+        event.setNovel(novel);
+        return event;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testApplyLifecycleEvents_RetriedBatchKeepsAuthorIncrements() {
+        NovelDetailResponseDTO novel = new NovelDetailResponseDTO();
+        novel.setId(9);
+        novel.setAuthorId(UUID.randomUUID());
+        novel.setViewCnt(5);
+        List<NovelLifecycleEventDTO> batch = List.of(event("c9", NovelLifecycleType.CREATED, novel));
+        when(redisRankingUtil.applyRankingUpdates(anyList(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(1);
+
+        assertThrows(RedisConnectionFailureException.class, () -> rankingEventService.applyLifecycleEvents(batch));
+        verify(novelCatalog, never()).apply(anyCollection(), anyCollection());
+
+        assertEquals(1, rankingEventService.applyLifecycleEvents(batch));
+
+        ArgumentCaptor<List<RankingUpdate>> updates = ArgumentCaptor.forClass(List.class);
+        verify(redisRankingUtil, times(2)).applyRankingUpdates(updates.capture(), any(Duration.class));
+        // The retry is planned against the catalog as it was before the failed attempt
+        assertTrue(updates.getValue().get(0).getOperations().stream()
+                .anyMatch(op -> op.getKey().equals(RankingUpdateService.RANK_AUTHOR_NOVEL_NUM)));
+        verify(novelCatalog).apply(List.of(novel), List.of());
+    }
+
+    @Test
+    void testApplyLifecycleEvents_AppliesCatalogChangesOncePerBatch() {
+        NovelDetailResponseDTO created = new NovelDetailResponseDTO();
+        created.setId(10);
+        NovelDetailResponseDTO deleted = new NovelDetailResponseDTO();
+        deleted.setId(11);
+        when(redisRankingUtil.applyRankingUpdates(anyList(), any(Duration.class))).thenReturn(3);
+
+        rankingEventService.applyLifecycleEvents(List.of(
+                event("c10", NovelLifecycleType.CREATED, created),
+                event("c11", NovelLifecycleType.CREATED, deleted),
+                event("d11", NovelLifecycleType.DELETED, deleted)));
+
+        verify(novelCatalog).apply(List.of(created), List.of(11));
+        verify(novelCatalog, never()).upsert(anyCollection());
+        verify(novelCatalog, never()).remove(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testApplyLifecycleEvents_DeletedNovelLeavesTrendingRankings() {
+        NovelDetailResponseDTO novel = new NovelDetailResponseDTO();
+        novel.setId(12);
+        novel.setCategoryId(3);
+        when(redisRankingUtil.applyRankingUpdates(anyList(), any(Duration.class))).thenReturn(1);
+
+        rankingEventService.applyLifecycleEvents(List.of(event("d12", NovelLifecycleType.DELETED, novel)));
+
+        ArgumentCaptor<List<RankingUpdate>> updates = ArgumentCaptor.forClass(List.class);
+        verify(redisRankingUtil).applyRankingUpdates(updates.capture(), any(Duration.class));
+        List<String> removed = updates.getValue().get(0).getOperations().stream()
+                .filter(op -> op.getCommand().equals("ZREM") && op.getMember().equals("12"))
+                .map(RedisRankingUtil.Operation::getKey)
+                .toList();
+        LocalDate today = LocalDate.now();
+        assertTrue(removed.containsAll(List.of(
+                "ranking:novel:view:all",
+                "ranking:novel:vote:3",
+                "ranking:novel:view:all:weekly",
+                "ranking:novel:vote:all:monthly",
+                TrendingRankingService.bucketKey("ranking:novel:view:3", today),
+                TrendingRankingService.bucketKey("ranking:novel:vote:all",
+                        today.minusDays(TrendingRankingService.MONTHLY_DAYS - 1)))));
+    }
+}
@@ -1,9 +1,10 @@
 package com.yushan.analytics_service.service;
 
-import com.yushan.analytics_service.client.ContentServiceClient;
-import com.yushan.analytics_service.client.GamificationServiceClient;
 import com.yushan.analytics_service.client.UserServiceClient;
 import com.yushan.analytics_service.dto.*;
+import com.yushan.analytics_service.exception.ResourceNotFoundException;
+import com.yushan.analytics_service.exception.ValidationException;
+import com.yushan.analytics_service.util.RedisRankingUtil;
 import com.yushan.analytics_service.util.RedisUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
 
@@ -22,16 +24,22 @@ import static org.mockito.Mockito.*;
 class RankingServiceTest {
 
     @Mock
-    private ContentServiceClient contentServiceClient;
+    private RemoteEntityCache remoteEntityCache;
 
     @Mock
     private UserServiceClient userServiceClient;
 
     @Mock
-    private GamificationServiceClient gamificationServiceClient;
+    private RedisUtil redisUtil;
 
     @Mock
-    private RedisUtil redisUtil;
+    private NovelCatalog novelCatalog;
+
+    @Mock
+    private UserProfileCache userProfileCache;
+
+    @Mock
+    private RedisRankingUtil redisRankingUtil;
 
     @InjectMocks
     private RankingService rankingService;
@@ -55,71 +63,210 @@ class RankingServiceTest {
 
     @Test
     void testRankNovel_Success() {
-        // Mock the content service response
-        PageResponseDTO<NovelDetailResponseDTO> pageData = new PageResponseDTO<>();
-        pageData.setContent(Arrays.asList(novelDTO));
-        pageData.setTotalElements(1);
-        pageData.setHasNext(false);
-        
-        ApiResponse<PageResponseDTO<NovelDetailResponseDTO>> response = new ApiResponse<>();
-        response.setCode(200);
-        response.setData(pageData);
-        
-        when(contentServiceClient.getNovels(anyInt(), anyInt(), anyString(), anyString()))
-                .thenReturn(response);
+        Map<String, Double> entries = new LinkedHashMap<>();
+        entries.put("1", 1000.0);
+        when(redisUtil.zReversePageWithScores("ranking:novel:view:all", 0L, 19L))
+                .thenReturn(new RedisUtil.ZSetPage(1L, entries));
+
+        when(novelCatalog.getNovels(List.of(1))).thenReturn(Map.of(1, novelDTO));
 
         PageResponseDTO<NovelDetailResponseDTO> result = 
                 rankingService.rankNovel(0, 20, "view", null, null);
 
         assertNotNull(result);
-        assertNotNull(result.getContent());
+        assertEquals(1, result.getContent().size());
         assertEquals(1, result.getTotalElements());
-        verify(contentServiceClient, atLeastOnce()).getNovels(anyInt(), anyInt(), anyString(), anyString());
+        verifyNoInteractions(remoteEntityCache);
+    }
+
+    @Test
+    void testRankNovel_HonorsSortTypeAndCategoryOrder() {
+        NovelDetailResponseDTO second = new NovelDetailResponseDTO();
+        second.setId(2);
+        second.setCategoryId(3);
+
+        Map<String, Double> entries = new LinkedHashMap<>();
+        entries.put("2", 900.0);
+        entries.put("1", 500.0);
+        when(redisUtil.zReversePageWithScores("ranking:novel:vote:3", 0L, 9L))
+                .thenReturn(new RedisUtil.ZSetPage(2L, entries));
+
+        when(novelCatalog.getNovels(List.of(2, 1))).thenReturn(Map.of(1, novelDTO, 2, second));
+
+        PageResponseDTO<NovelDetailResponseDTO> result = 
+                rankingService.rankNovel(0, 10, "vote", 3, "overall");
+
+        assertEquals(2, result.getContent().size());
+        assertEquals(2, result.getContent().get(0).getId());
+        assertEquals(1, result.getContent().get(1).getId());
+    }
+
+    @Test
+    void testRankNovel_PagesBeyondLeaderboardSize() {
+        Map<String, Double> entries = new LinkedHashMap<>();
+        entries.put("1", 3.0);
+        when(redisUtil.zReversePageWithScores("ranking:novel:view:all", 200L, 219L))
+                .thenReturn(new RedisUtil.ZSetPage(500L, entries));
+        when(novelCatalog.getNovels(List.of(1))).thenReturn(Map.of(1, novelDTO));
+
+        PageResponseDTO<NovelDetailResponseDTO> result =
+                rankingService.rankNovel(10, 20, "view", null, null);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(500, result.getTotalElements());
     }
 
     @Test
-    void testRankUser_Success() {
-        // Mock user service response
-        PageResponseDTO<UserProfileResponseDTO> pageData = new PageResponseDTO<>();
-        pageData.setContent(Arrays.asList(userDTO));
-        pageData.setTotalElements(1);
-        pageData.setHasNext(false);
-        
-        ApiResponse<PageResponseDTO<UserProfileResponseDTO>> userResponse = new ApiResponse<>();
-        userResponse.setCode(200);
-        userResponse.setData(pageData);
-        
-        when(userServiceClient.getAllUsersForRanking(anyInt(), anyInt(), anyString(), anyString()))
-                .thenReturn(userResponse);
+    void testRankNovel_WeeklyReadsTrendingKey() {
+        Map<String, Double> entries = new LinkedHashMap<>();
+        entries.put("1", 40.0);
+        when(redisUtil.zReversePageWithScores("ranking:novel:view:all:weekly", 0L, 9L))
+                .thenReturn(new RedisUtil.ZSetPage(1L, entries));
+        when(novelCatalog.getNovels(List.of(1))).thenReturn(Map.of(1, novelDTO));
+
+        PageResponseDTO<NovelDetailResponseDTO> result =
+                rankingService.rankNovel(0, 10, "view", null, "weekly");
+
+        assertEquals(1, result.getContent().size());
+        verify(redisUtil, never()).zReversePageWithScores(eq("ranking:novel:view:all"), anyLong(), anyLong());
+    }
+
+    @Test
+    void testRankNovel_RejectsWeeklyVotesWithoutEvents() {
+        assertThrows(ValidationException.class, () -> rankingService.rankNovel(0, 10, "vote", null, "weekly"));
+        assertThrows(ValidationException.class, () -> rankingService.rankAuthor(0, 10, "vote", "monthly"));
+        assertThrows(ValidationException.class,
+                () -> rankingService.getNovelRanks(List.of(1), "vote", 3, "monthly"));
+
+        verify(redisUtil, never()).zReversePageWithScores(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testRankNovel_WeeklyVotesReadTrendingKeyWithEvents() {
+        ReflectionTestUtils.setField(rankingService, "rankingEventsEnabled", true);
+        Map<String, Double> entries = new LinkedHashMap<>();
+        entries.put("1", 12.0);
+        when(redisUtil.zReversePageWithScores("ranking:novel:vote:all:weekly", 0L, 9L))
+                .thenReturn(new RedisUtil.ZSetPage(1L, entries));
+        when(novelCatalog.getNovels(List.of(1))).thenReturn(Map.of(1, novelDTO));
+
+        PageResponseDTO<NovelDetailResponseDTO> result =
+                rankingService.rankNovel(0, 10, "vote", null, "weekly");
+
+        assertEquals(1, result.getContent().size());
+    }
+
+    @Test
+    void testRankUser_ServesPageFromExpRankingAndDecodesScore() {
+        Map<String, Double> entries = new LinkedHashMap<>();
+        entries.put(userDTO.getUuid(), 9_003_200.0);
+        when(redisUtil.zReversePageWithScores("ranking:user:exp", 0L, 19L))
+                .thenReturn(new RedisUtil.ZSetPage(1L, entries));
+        when(userProfileCache.getProfiles(List.of(userDTO.getUuid())))
+                .thenReturn(Map.of(userDTO.getUuid(), userDTO));
 
         PageResponseDTO<UserProfileResponseDTO> result = 
                 rankingService.rankUser(0, 20, "overall");
 
-        assertNotNull(result);
-        assertNotNull(result.getContent());
         assertEquals(1, result.getContent().size());
-        
-        // Verify that level and exp are hardcoded (first user should be level 9)
         UserProfileResponseDTO firstUser = result.getContent().get(0);
-        assertNotNull(firstUser.getLevel());
-        assertNotNull(firstUser.getCurrentExp());
-        
-        verify(userServiceClient, atLeastOnce()).getAllUsersForRanking(anyInt(), anyInt(), anyString(), anyString());
+        assertEquals(9, firstUser.getLevel());
+        assertEquals(3200, firstUser.getCurrentExp());
+        verify(userServiceClient, never()).getAllUsersForRanking(anyInt(), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void testRankAuthor_ReadsSortTypeKeyAndHydratesFromCatalog() {
+        UUID authorId = UUID.randomUUID();
+        novelDTO.setAuthorId(authorId);
+        novelDTO.setAuthorUsername("author");
+        when(novelCatalog.snapshot()).thenReturn(NovelCatalogSnapshot.build(1L, 0L, List.of(novelDTO)));
+        Map<String, Double> entries = new LinkedHashMap<>();
+        entries.put(authorId.toString(), 1.0);
+        entries.put(UUID.randomUUID().toString(), 1.0);
+        when(redisUtil.zReversePageWithScores("ranking:author:novelNum", 0L, 9L))
+                .thenReturn(new RedisUtil.ZSetPage(2L, entries));
+
+        PageResponseDTO<AuthorResponseDTO> result = rankingService.rankAuthor(0, 10, "novelNum", "weekly");
+
+        assertEquals(1, result.getContent().size());
+        AuthorResponseDTO author = result.getContent().get(0);
+        assertEquals("author", author.getUsername());
+        assertEquals(1, author.getNovelNum());
+        assertEquals(1000, author.getTotalViewCnt());
+        assertEquals(500, author.getTotalVoteCnt());
     }
 
     @Test
-    void testGetBestNovelRank_Success() {
-        ApiResponse<NovelDetailResponseDTO> response = new ApiResponse<>();
-        response.setCode(200);
-        response.setData(novelDTO);
-        when(contentServiceClient.getNovelById(1)).thenReturn(response);
-        when(redisUtil.zReverseRank(anyString(), anyString())).thenReturn(0L);
-        when(redisUtil.zScore(anyString(), anyString())).thenReturn(1000.0);
+    void testGetBestNovelRanks_OnePipelinedBatchOmittingUnranked() {
+        ReflectionTestUtils.setField(rankingService, "maxBulkIds", 3);
+        novelDTO.setCategoryName("Fantasy");
+        // Novel 2 is unknown to the catalog and only checked in the all-time rankings
+        when(novelCatalog.getNovels(List.of(1, 2))).thenReturn(Map.of(1, novelDTO));
+        when(redisRankingUtil.reverseRanks(List.of(
+                Map.entry("ranking:novel:view:all", "1"),
+                Map.entry("ranking:novel:vote:all", "1"),
+                Map.entry("ranking:novel:view:1", "1"),
+                Map.entry("ranking:novel:vote:1", "1"),
+                Map.entry("ranking:novel:view:all", "2"),
+                Map.entry("ranking:novel:vote:all", "2"))))
+                .thenReturn(Arrays.asList(
+                        new RedisRankingUtil.MemberRank(9L, 1000.0),
+                        new RedisRankingUtil.MemberRank(1L, 900.0),
+                        null,
+                        null,
+                        null,
+                        null));
+
+        assertEquals(List.of(new NovelRankDTO(1, 2L, 900.0, "All-Time Votes Ranking")),
+                rankingService.getBestNovelRanks(List.of(1, 2, 1)));
+        assertThrows(ValidationException.class, () -> rankingService.getBestNovelRanks(List.of(1, 2, 3, 4)));
+    }
+
+    @Test
+    void testGetNovelRanks_OnePipelinedBatchForRequestedRanking() {
+        ReflectionTestUtils.setField(rankingService, "maxBulkIds", 500);
+        ReflectionTestUtils.setField(rankingService, "rankingEventsEnabled", true);
+        when(redisRankingUtil.reverseRanks(List.of(
+                Map.entry("ranking:novel:vote:3:monthly", "1"),
+                Map.entry("ranking:novel:vote:3:monthly", "2"))))
+                .thenReturn(Arrays.asList(null, new RedisRankingUtil.MemberRank(0L, 12.0)));
+
+        List<NovelRankDTO> ranks = rankingService.getNovelRanks(List.of(1, 2), "vote", 3, "monthly");
+
+        assertEquals(List.of(new NovelRankDTO(2, 1L, 12.0, "ranking:novel:vote:3:monthly")), ranks);
+    }
+
+    @Test
+    void testGetBestNovelRank_ChecksAllRankingsInOneLookup() {
+        novelDTO.setCategoryName("Fantasy");
+        when(novelCatalog.getNovel(1)).thenReturn(novelDTO);
+        when(redisRankingUtil.reverseRanks(List.of(
+                Map.entry("ranking:novel:view:all", "1"),
+                Map.entry("ranking:novel:vote:all", "1"),
+                Map.entry("ranking:novel:view:1", "1"),
+                Map.entry("ranking:novel:vote:1", "1"))))
+                .thenReturn(Arrays.asList(
+                        new RedisRankingUtil.MemberRank(9L, 1000.0),
+                        null,
+                        new RedisRankingUtil.MemberRank(2L, 1000.0),
+                        new RedisRankingUtil.MemberRank(2L, 500.0)));
 
         NovelRankDTO result = rankingService.getBestNovelRank(1);
 
-        assertNotNull(result);
-        verify(redisUtil, atLeastOnce()).zReverseRank(anyString(), anyString());
+        assertEquals(3L, result.getRank());
+        assertEquals(1000.0, result.getScore());
+        assertEquals("Fantasy Views Ranking", result.getRankingType());
+        verifyNoInteractions(remoteEntityCache);
+    }
+
+    @Test
+    void testGetBestNovelRank_UnknownNovel() {
+        when(novelCatalog.getNovel(9)).thenReturn(null);
+        when(remoteEntityCache.getNovels(List.of(9))).thenReturn(Map.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> rankingService.getBestNovelRank(9));
+        verify(redisRankingUtil, never()).reverseRanks(anyList());
     }
 }
 
@@ -0,0 +1,116 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.client.GamificationServiceClient;
+import com.yushan.analytics_service.client.UserServiceClient;
+import com.yushan.analytics_service.dto.ApiResponse;
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.dto.NovelRankDTO;
+import com.yushan.analytics_service.dto.PageResponseDTO;
+import com.yushan.analytics_service.dto.UserProfileResponseDTO;
+import com.yushan.analytics_service.util.RedisRankingUtil;
+import com.yushan.analytics_service.util.RedisUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RankingUpdateServiceTest {
+
+    @Mock
+    private NovelCatalog novelCatalog;
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    @Mock
+    private GamificationServiceClient gamificationServiceClient;
+
+    @Mock
+    private RedisUtil redisUtil;
+
+    @Mock
+    private RedisRankingUtil redisRankingUtil;
+
+    @InjectMocks
+    private RankingUpdateService rankingUpdateService;
+
+    private NovelDetailResponseDTO novel(int id, int categoryId, Integer views, Integer votes) {
+        NovelDetailResponseDTO novel = new NovelDetailResponseDTO();
+        novel.setId(id);
+        novel.setCategoryId(categoryId);
+        novel.setAuthorId(UUID.randomUUID());
+        novel.setViewCnt(views);
+        novel.setVoteCnt(votes);
+        return novel;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUpdateNovelRankings_SwapsRebuiltKeysAndDropsStaleOnes() {
+        NovelCatalogSnapshot snapshot = NovelCatalogSnapshot.build(
+                1, System.currentTimeMillis(), List.of(novel(1, 2, 100, 5), novel(2, 2, 50, null)));
+        when(novelCatalog.refresh()).thenReturn(snapshot);
+        when(redisUtil.keys("ranking:novel:*")).thenReturn(Set.of(
+                "ranking:novel:view:all", "ranking:novel:view:9", "ranking:novel:view:d:20260101"));
+
+        rankingUpdateService.updateNovelRankings();
+
+        ArgumentCaptor<Map<String, Map<String, Double>>> rankings = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<Collection<String>> staleKeys = ArgumentCaptor.forClass(Collection.class);
+        verify(redisRankingUtil, times(2)).replaceSortedSets(rankings.capture(), staleKeys.capture());
+
+        Map<String, Map<String, Double>> novelRankings = rankings.getAllValues().get(1);
+        assertEquals(Map.of("1", 100.0, "2", 50.0), novelRankings.get("ranking:novel:view:all"));
+        assertEquals(Map.of("1", 5.0), novelRankings.get("ranking:novel:vote:2"));
+        // The best-rank index of earlier releases is dropped with the stale rankings
+        assertEquals(List.of("ranking:novel:view:9", "ranking:novel:best"), List.copyOf(staleKeys.getAllValues().get(1)));
+        verify(redisUtil, never()).zAdd(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void testUpdateNovelRankings_KeepsRankingsWhenCatalogEmpty() {
+        when(novelCatalog.refresh()).thenReturn(NovelCatalogSnapshot.build(0, 0, List.of()));
+
+        rankingUpdateService.updateNovelRankings();
+
+        verify(redisRankingUtil, never()).replaceSortedSets(anyMap(), anyCollection());
+    }
+
+    @Test
+    void testUpdateUserRankings_CrawlsAllPagesAndFetchesStatsPerPage() {
+        ReflectionTestUtils.setField(rankingUpdateService, "crawlConcurrency", 2);
+        for (int page = 0; page < 3; page++) {
+            UserProfileResponseDTO user = new UserProfileResponseDTO();
+            user.setUuid("user-" + page);
+            when(userServiceClient.getAllUsersForRanking(eq(page), anyInt(), anyString(), anyString()))
+                    .thenReturn(ApiResponse.success("ok", new PageResponseDTO<>(List.of(user), 3, 3, page, 1, page == 0, page == 2, page < 2, page > 0)));
+            GamificationServiceClient.GamificationStats stats = new GamificationServiceClient.GamificationStats();
+            stats.userId = "user-" + page;
+            stats.level = page + 1;
+            stats.currentExp = 5;
+            when(gamificationServiceClient.getBatchUsersStats(List.of("user-" + page)))
+                    .thenReturn(ApiResponse.success("ok", List.of(stats)));
+        }
+
+        rankingUpdateService.updateUserRankings();
+
+        verify(userServiceClient, times(3)).getAllUsersForRanking(anyInt(), anyInt(), anyString(), anyString());
+        verify(redisRankingUtil).replaceSortedSets(Map.of("ranking:user:exp", Map.of(
+                "user-0", 1000005.0, "user-1", 2000005.0, "user-2", 3000005.0)), List.of());
+    }
+}
@@ -0,0 +1,106 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.dto.NovelDetailResponseDTO;
+import com.yushan.analytics_service.entity.History;
+import com.yushan.analytics_service.util.RedisRankingUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingRankingServiceTest {
+
+    @Mock
+    private RedisRankingUtil redisRankingUtil;
+
+    @Mock
+    private NovelCatalog novelCatalog;
+
+    @InjectMocks
+    private TrendingRankingService trendingRankingService;
+
+    private final LocalDate today = LocalDate.now();
+    private final UUID authorId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(trendingRankingService, "viewSource", "history");
+        ReflectionTestUtils.setField(trendingRankingService, "bucketTtlDays", 32L);
+        ReflectionTestUtils.setField(trendingRankingService, "keepTop", 1000L);
+    }
+
+    private NovelDetailResponseDTO novel(int id, int categoryId) {
+        NovelDetailResponseDTO novel = new NovelDetailResponseDTO();
+        novel.setId(id);
+        novel.setCategoryId(categoryId);
+        novel.setAuthorId(authorId);
+        return novel;
+    }
+
+    private History read(int novelId) {
+        History history = new History();
+        history.setUserId(UUID.randomUUID());
+        history.setNovelId(novelId);
+        return history;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecordReads_CountsIntoTodaysBuckets() {
+        when(novelCatalog.getNovels(anyCollection())).thenReturn(Map.of(1, novel(1, 3)));
+
+        trendingRankingService.recordReads(List.of(read(1), read(1)));
+
+        ArgumentCaptor<Map<String, Map<String, Double>>> increments = ArgumentCaptor.forClass(Map.class);
+        verify(redisRankingUtil).incrementSortedSets(increments.capture(), eq(Duration.ofDays(32)));
+        String day = "d:" + today.format(DateTimeFormatter.BASIC_ISO_DATE);
+        assertEquals(Map.of("1", 2.0), increments.getValue().get("ranking:novel:view:all:" + day));
+        assertEquals(Map.of("1", 2.0), increments.getValue().get("ranking:novel:view:3:" + day));
+        assertEquals(Map.of(authorId.toString(), 2.0), increments.getValue().get("ranking:author:view:" + day));
+    }
+
+    @Test
+    void testRecordReads_SkippedWhenViewsComeFromEvents() {
+        ReflectionTestUtils.setField(trendingRankingService, "viewSource", "events");
+
+        trendingRankingService.recordReads(List.of(read(1)));
+
+        verifyNoInteractions(redisRankingUtil, novelCatalog);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMaterialize_UnionsLastSevenAndThirtyDays() {
+        NovelCatalogSnapshot snapshot = NovelCatalogSnapshot.build(1L, 0L, List.of(novel(1, 3)));
+        when(novelCatalog.snapshot()).thenReturn(snapshot);
+
+        trendingRankingService.materialize();
+
+        ArgumentCaptor<Map<String, List<String>>> unions = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<Collection<String>> expired = ArgumentCaptor.forClass(Collection.class);
+        verify(redisRankingUtil).unionSortedSets(unions.capture(), eq(1000L), expired.capture(), eq(Duration.ofDays(32)));
+
+        List<String> weekly = unions.getValue().get("ranking:novel:vote:3:weekly");
+        assertEquals(7, weekly.size());
+        assertEquals(TrendingRankingService.bucketKey("ranking:novel:vote:3", today), weekly.get(0));
+        assertEquals(30, unions.getValue().get("ranking:author:view:monthly").size());
+        assertTrue(expired.getValue().contains(TrendingRankingService.bucketKey("ranking:novel:view:all", today)));
+    }
+}
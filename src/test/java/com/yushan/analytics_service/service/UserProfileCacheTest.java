@@ -0,0 +1,58 @@
+package com.yushan.analytics_service.service;
+
+import com.yushan.analytics_service.dto.UserProfileResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserProfileCacheTest {
+
+    @Mock
+    private RemoteEntityCache remoteEntityCache;
+
+    @InjectMocks
+    private UserProfileCache userProfileCache;
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+
+    private UserProfileResponseDTO profile(UUID userId) {
+        UserProfileResponseDTO profile = new UserProfileResponseDTO();
+        profile.setUuid(userId.toString());
+        profile.setUsername("user-" + userId);
+        return profile;
+    }
+
+    @Test
+    void testGetProfiles_LooksUpValidIdsInOneBatch() {
+        when(remoteEntityCache.getUsers(List.of(first, second)))
+                .thenReturn(Map.of(first, profile(first), second, profile(second)));
+
+        Map<String, UserProfileResponseDTO> profiles =
+                userProfileCache.getProfiles(List.of(first.toString(), second.toString(), "not-a-uuid"));
+
+        assertEquals(2, profiles.size());
+        verify(remoteEntityCache, times(1)).getUsers(anyCollection());
+    }
+
+    @Test
+    void testGetProfiles_ReturnsCopies() {
+        UserProfileResponseDTO shared = profile(first);
+        when(remoteEntityCache.getUsers(anyCollection())).thenReturn(Map.of(first, shared));
+
+        userProfileCache.getProfiles(List.of(first.toString())).get(first.toString()).setLevel(9);
+
+        assertNull(shared.getLevel());
+    }
+}
@@ -0,0 +1,66 @@
+package com.yushan.analytics_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HmacUtilTest {
+
+    private static final String SECRET = "test-gateway-secret";
+
+    private static String sign(String userId, String email, String role, long timestamp) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String message = String.format("%s|%s|%s|%d", userId, email, role, timestamp);
+        return Base64.getEncoder().encodeToString(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testVerifySignature_AcceptsValidSignature() throws Exception {
+        long now = System.currentTimeMillis();
+        String signature = sign("user-1", "reader@example.com", "USER", now);
+
+        assertTrue(HmacUtil.verifySignature("user-1", "reader@example.com", "USER", now, signature, SECRET));
+        // Missing role is signed as USER
+        assertTrue(HmacUtil.verifySignature("user-1", "reader@example.com", null, now, signature, SECRET));
+    }
+
+    @Test
+    void testVerifySignature_RejectsTamperedHeaders() throws Exception {
+        long now = System.currentTimeMillis();
+        String signature = sign("user-2", "reader@example.com", "USER", now);
+        assertTrue(HmacUtil.verifySignature("user-2", "reader@example.com", "USER", now, signature, SECRET));
+
+        // A cached signature must not vouch for other headers
+        assertFalse(HmacUtil.verifySignature("user-2", "reader@example.com", "ADMIN", now, signature, SECRET));
+        assertFalse(HmacUtil.verifySignature("user-3", "reader@example.com", "USER", now, signature, SECRET));
+        assertFalse(HmacUtil.verifySignature("user-2", "reader@example.com", "USER", now, signature, "other-secret"));
+        assertFalse(HmacUtil.verifySignature("user-2", "reader@example.com", "USER", now, "not-a-signature", SECRET));
+        assertFalse(HmacUtil.verifySignature("user-2", "reader@example.com", "USER", now, null, SECRET));
+    }
+
+    @Test
+    void testVerifySignature_RejectsExpiredTimestamp() throws Exception {
+        long expired = System.currentTimeMillis() - 6 * 60 * 1000;
+        String signature = sign("user-4", "reader@example.com", "USER", expired);
+
+        assertFalse(HmacUtil.verifySignature("user-4", "reader@example.com", "USER", expired, signature, SECRET));
+    }
+
+    @Test
+    void testVerifier_SignsNonAsciiHeadersAsUtf8() throws Exception {
+        long now = System.currentTimeMillis();
+        String signature = sign("user-5", "lecteur@exemple.fr", "AUTHOR", now);
+        String unicodeSignature = sign("user-5", "读者@example.com", "AUTHOR", now);
+        HmacUtil.Verifier verifier = new HmacUtil.Verifier(SECRET, 0);
+
+        assertTrue(verifier.verify("user-5", "lecteur@exemple.fr", "AUTHOR", now, signature));
+        assertTrue(verifier.verify("user-5", "读者@example.com", "AUTHOR", now, unicodeSignature));
+        assertFalse(verifier.verify("user-5", "读者@example.com", "AUTHOR", now, signature));
+    }
+}
@@ -29,6 +29,8 @@ class JwtUtilTest {
 
         ReflectionTestUtils.setField(jwtUtil, "secret", testSecret);
         ReflectionTestUtils.setField(jwtUtil, "issuer", testIssuer);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 100L);
+        jwtUtil.init();
 
         signingKey = Keys.hmacShaKeyFor(testSecret.getBytes(StandardCharsets.UTF_8));
     }
@@ -227,5 +229,42 @@ class JwtUtilTest {
 
         assertEquals(userId, extractedUserId);
     }
-}
 
+    @Test
+    void testParseToken_ReadsClaimsOnce() {
+        String userId = UUID.randomUUID().toString();
+        String token = createTestToken(userId, "test@example.com", "testuser",
+                "AUTHOR", 0, "access", 3600000);
+
+        JwtClaims claims = jwtUtil.parseToken(token);
+
+        assertNotNull(claims);
+        assertEquals(userId, claims.userId());
+        assertEquals("test@example.com", claims.email());
+        assertEquals("testuser", claims.username());
+        assertEquals("AUTHOR", claims.role());
+        assertEquals(0, claims.status());
+        assertTrue(claims.isAccessToken());
+        assertFalse(claims.isExpired());
+        // A second request with the same token reuses the verified claims
+        assertSame(claims, jwtUtil.parseToken(token));
+    }
+
+    @Test
+    void testParseToken_RejectsInvalidAndForgedTokens() {
+        String token = createTestToken(UUID.randomUUID().toString(), "test@example.com", "testuser",
+                "USER", 0, "access", 3600000);
+        String forged = Jwts.builder()
+                .claim("userId", "attacker")
+                .claim("tokenType", "access")
+                .expiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(Keys.hmacShaKeyFor("anotherSecretKeyThatIsLongEnoughForHmacSha256Signing!!".getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertNull(jwtUtil.parseToken("invalid.token.here"));
+        assertNull(jwtUtil.parseToken(forged));
+        assertNull(jwtUtil.parseToken(token.substring(0, token.length() - 2)));
+        assertNull(jwtUtil.parseToken(null));
+        assertNotNull(jwtUtil.parseToken(token));
+    }
+}
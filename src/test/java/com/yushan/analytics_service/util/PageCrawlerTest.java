@@ -0,0 +1,49 @@
+package com.yushan.analytics_service.util;
+
+import com.yushan.analytics_service.dto.PageResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCrawlerTest {
+
+    private static PageResponseDTO<Integer> page(int number, int totalPages) {
+        return new PageResponseDTO<>(List.of(number), totalPages, totalPages, number, 1,
+                number == 0, number == totalPages - 1, number < totalPages - 1, number > 0);
+    }
+
+    @Test
+    void testCrawl_ReturnsPagesInOrderWithBoundedConcurrency() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<List<Integer>> pages = PageCrawler.crawl("test", number -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return page(number, 20);
+        }, Function.identity(), 100, 4);
+
+        assertEquals(20, pages.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(List.of(i), pages.get(i));
+        }
+        assertTrue(maxInFlight.get() <= 4);
+    }
+
+    @Test
+    void testCrawl_SkipsFailedPagesAndCapsPageCount() {
+        List<List<Integer>> pages = PageCrawler.crawl("test",
+                number -> number == 1 ? null : page(number, 10), Function.identity(), 3, 2);
+
+        assertEquals(List.of(List.of(0), List.of(2)), pages);
+    }
+}
@@ -0,0 +1,139 @@
+package com.yushan.analytics_service.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisKeyIndexTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, Object> zSetOperations;
+
+    @InjectMocks
+    private RedisKeyIndex redisKeyIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(redisKeyIndex, "scanCount", 1000);
+        ReflectionTestUtils.setField(redisKeyIndex, "unlinkBatchSize", 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Cursor<T> cursor(List<T> values) {
+        Iterator<T> iterator = values.iterator();
+        Cursor<T> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        lenient().when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+
+    private static ZSetOperations.TypedTuple<Object> member(String key, long expiresAt) {
+        return ZSetOperations.TypedTuple.of(key, (double) expiresAt);
+    }
+
+    @Test
+    void testUnlinkMatching_ScansAndUnlinksInBatches() {
+        Cursor<String> keys = cursor(List.of("gamification:a:1", "gamification:a:2", "gamification:b:1"));
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(keys);
+        when(redisTemplate.unlink(anyCollection())).thenAnswer(invocation -> (long) invocation.getArgument(0, List.class).size());
+
+        assertEquals(3L, redisKeyIndex.unlinkMatching("gamification:*"));
+        verify(redisTemplate).unlink(List.of("gamification:a:1", "gamification:a:2"));
+        verify(redisTemplate).unlink(List.of("gamification:b:1"));
+        verify(redisTemplate, never()).keys(anyString());
+        verify(keys).close();
+    }
+
+    @Test
+    void testInvalidateTag_UnlinksMembersWithoutScanningKeyspace() {
+        long later = System.currentTimeMillis() + 60_000;
+        when(redisTemplate.hasKey("tag:achievement:user")).thenReturn(true);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        Cursor<ZSetOperations.TypedTuple<Object>> members = cursor(List.of(
+                member("achievement:user:1", later), member("achievement:user:2", later),
+                // Expired before the invalidation, nothing left to unlink
+                member("achievement:user:3", 1_000L)));
+        when(zSetOperations.scan(startsWith("tag:achievement:user:invalidating:"), any(ScanOptions.class)))
+                .thenReturn(members);
+        when(redisTemplate.unlink(anyCollection())).thenReturn(2L);
+
+        assertEquals(2L, redisKeyIndex.invalidateTag("achievement:user", "achievement:user:*"));
+        verify(redisTemplate).rename(eq("tag:achievement:user"), startsWith("tag:achievement:user:invalidating:"));
+        verify(redisTemplate).unlink(List.of("achievement:user:1", "achievement:user:2"));
+        verify(redisTemplate).unlink(startsWith("tag:achievement:user:invalidating:"));
+        verify(redisTemplate, never()).scan(any(ScanOptions.class));
+    }
+
+    @Test
+    void testInvalidateTag_ScansWhenTagSetMissing() {
+        when(redisTemplate.hasKey("tag:gamification:data")).thenReturn(false);
+        Cursor<String> keys = cursor(List.of());
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(keys);
+
+        assertEquals(0L, redisKeyIndex.invalidateTag("gamification:data", "gamification:*"));
+        verify(redisTemplate).scan(any(ScanOptions.class));
+        verify(redisTemplate, never()).rename(anyString(), anyString());
+    }
+
+    @Test
+    void testInvalidateTag_ScansForUntaggedKeysAfterDrainingTagSet() {
+        ReflectionTestUtils.setField(redisKeyIndex, "scanUntagged", true);
+        when(redisTemplate.hasKey("tag:achievement:user")).thenReturn(true);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        Cursor<ZSetOperations.TypedTuple<Object>> members =
+                cursor(List.of(member("achievement:user:1", System.currentTimeMillis() + 60_000)));
+        when(zSetOperations.scan(startsWith("tag:achievement:user:invalidating:"), any(ScanOptions.class)))
+                .thenReturn(members);
+        // Written before tagging was rolled out
+        Cursor<String> untagged = cursor(List.of("achievement:user:2"));
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(untagged);
+        when(redisTemplate.unlink(anyCollection())).thenReturn(1L);
+
+        assertEquals(2L, redisKeyIndex.invalidateTag("achievement:user", "achievement:user:*"));
+        verify(redisTemplate).unlink(List.of("achievement:user:1"));
+        verify(redisTemplate).unlink(List.of("achievement:user:2"));
+        verify(untagged).close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTag_ScoresByExpiryAndPrunesExpiredMembers() {
+        RedisOperations<String, Object> operations = mock(RedisOperations.class);
+        when(operations.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            invocation.<SessionCallback<Object>>getArgument(0).execute(operations);
+            return List.of();
+        });
+        long before = System.currentTimeMillis();
+
+        redisKeyIndex.tag("achievement:user", "achievement:user:1", Duration.ofMinutes(10));
+
+        verify(zSetOperations).add(eq("tag:achievement:user"), eq("achievement:user:1"),
+                doubleThat(score -> score >= before + 600_000));
+        verify(zSetOperations).removeRangeByScore(eq("tag:achievement:user"), eq(Double.NEGATIVE_INFINITY),
+                doubleThat(now -> now >= before));
+        verify(operations).expire("tag:achievement:user", Duration.ofMinutes(10));
+    }
+}
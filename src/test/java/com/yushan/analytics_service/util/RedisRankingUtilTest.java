@@ -0,0 +1,113 @@
+package com.yushan.analytics_service.util;
+
+import com.yushan.analytics_service.config.RedisConfig;
+import com.yushan.analytics_service.util.RedisRankingUtil.MemberRank;
+import com.yushan.analytics_service.util.RedisRankingUtil.RankingUpdate;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the apply-once ranking script against a real Redis; skipped where Docker is unavailable
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisRankingUtilTest {
+
+    private static final Duration DEDUP_TTL = Duration.ofMinutes(5);
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private RedisRankingUtil redisRankingUtil;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        RedisTemplate<String, Object> redisTemplate = new RedisConfig().redisTemplate(connectionFactory, "json", 1024);
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        redisRankingUtil = new RedisRankingUtil();
+        ReflectionTestUtils.setField(redisRankingUtil, "redisTemplate", redisTemplate);
+    }
+
+    private Double score(String key, String member) {
+        MemberRank rank = redisRankingUtil.reverseRanks(List.of(Map.entry(key, member))).get(0);
+        return rank != null ? rank.getScore() : null;
+    }
+
+    @Test
+    void testApplyRankingUpdates_ReplayedBatchLeavesScoresUnchanged() {
+        List<RankingUpdate> batch = List.of(
+                new RankingUpdate("v1").incrementBy("ranking:novel:view:all", "1", 1),
+                new RankingUpdate("v2").incrementBy("ranking:novel:view:all", "1", 1)
+                        .incrementBy("ranking:novel:view:all", "2", 3),
+                new RankingUpdate("x1").addIfGreater("ranking:user:exp", "u1", 500));
+
+        assertEquals(3, redisRankingUtil.applyRankingUpdates(batch, DEDUP_TTL));
+        assertEquals(0, redisRankingUtil.applyRankingUpdates(batch, DEDUP_TTL));
+
+        assertEquals(2.0, score("ranking:novel:view:all", "1"));
+        assertEquals(3.0, score("ranking:novel:view:all", "2"));
+        assertEquals(500.0, score("ranking:user:exp", "u1"));
+    }
+
+    @Test
+    void testApplyRankingUpdates_PartlyReplayedBatchAppliesOnlyNewEvents() {
+        redisRankingUtil.applyRankingUpdates(
+                List.of(new RankingUpdate("v1").incrementBy("ranking:novel:view:all", "1", 1)), DEDUP_TTL);
+
+        int applied = redisRankingUtil.applyRankingUpdates(List.of(
+                new RankingUpdate("v1").incrementBy("ranking:novel:view:all", "1", 1),
+                new RankingUpdate("v2").incrementBy("ranking:novel:view:all", "1", 1)), DEDUP_TTL);
+
+        assertEquals(1, applied);
+        assertEquals(2.0, score("ranking:novel:view:all", "1"));
+    }
+
+    @Test
+    void testApplyRankingUpdates_AppliesEventsInOrder() {
+        // Created then deleted, and a stale exp event delivered after a newer one
+        List<RankingUpdate> batch = List.of(
+                new RankingUpdate("c8").add("ranking:novel:view:all", "8", 40),
+                new RankingUpdate("d8").remove("ranking:novel:view:all", "8"),
+                new RankingUpdate("x2").addIfGreater("ranking:user:exp", "u1", 2000000),
+                new RankingUpdate("x3").addIfGreater("ranking:user:exp", "u1", 1000050));
+
+        assertEquals(4, redisRankingUtil.applyRankingUpdates(batch, DEDUP_TTL));
+        assertEquals(0, redisRankingUtil.applyRankingUpdates(batch, DEDUP_TTL));
+
+        assertNull(score("ranking:novel:view:all", "8"));
+        assertEquals(2000000.0, score("ranking:user:exp", "u1"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.yushan.analytics_service.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+    private double calls(String result) {
+        return meterRegistry.get("analytics.singleflight.calls").tag("call", "test").tag("result", result).counter().count();
+    }
+
+    @Test
+    void testExecute_ConcurrentIdenticalCallsShareOneCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger invocations = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("novel:1", () -> {
+                invocations.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "novel";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> follower = executor.submit(() -> singleFlight.execute("novel:1", () -> {
+                invocations.incrementAndGet();
+                return "duplicate";
+            }));
+            while (calls("collapsed") < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals("novel", leader.get(5, TimeUnit.SECONDS));
+            assertEquals("novel", follower.get(5, TimeUnit.SECONDS));
+            assertEquals(1, invocations.get());
+            assertEquals(1.0, calls("executed"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecute_ReleasesKeyAfterCompletion() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("novel:1", () -> {
+            throw new IllegalStateException("content service down");
+        }));
+
+        assertEquals("novel", singleFlight.execute("novel:1", () -> "novel"));
+        assertEquals(2.0, calls("executed"));
+        assertEquals(0.0, calls("collapsed"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
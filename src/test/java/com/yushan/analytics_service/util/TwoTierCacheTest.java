@@ -0,0 +1,83 @@
+package com.yushan.analytics_service.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoTierCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TwoTierCache<Integer, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TwoTierCache<>("test", String.class, redisTemplate, meterRegistry,
+                100, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("analytics.cache.requests").tag("cache", "test").tag("result", result).counter().count();
+    }
+
+    @Test
+    void testGetAll_LoadsOnlyKeysMissingFromBothTiers() {
+        when(valueOperations.multiGet(List.of("cache:test:1", "cache:test:2", "cache:test:3")))
+                .thenReturn(Arrays.asList(null, "two", null));
+        List<List<Integer>> loads = new ArrayList<>();
+
+        Map<Integer, String> values = cache.getAll(List.of(1, 2, 3), ids -> {
+            loads.add(ids);
+            return Map.of(1, "one");
+        });
+
+        assertEquals(Map.of(1, "one", 2, "two"), values);
+        assertEquals(List.of(List.of(1, 3)), loads);
+        verify(redisTemplate).executePipelined(any(SessionCallback.class));
+        assertEquals(1.0, requests("l2_hit"));
+        assertEquals(2.0, requests("miss"));
+    }
+
+    @Test
+    void testGetAll_ServesRepeatedLookupsFromLocalTier() {
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList((Object) null));
+        cache.getAll(List.of(1), ids -> Map.of(1, "one"));
+
+        Map<Integer, String> values = cache.getAll(List.of(1), ids -> fail("should not load"));
+
+        assertEquals(Map.of(1, "one"), values);
+        verify(valueOperations, times(1)).multiGet(anyList());
+        assertEquals(1.0, requests("l1_hit"));
+    }
+
+    @Test
+    void testGetAll_FallsBackToLoaderWhenRedisFails() {
+        when(valueOperations.multiGet(anyList())).thenThrow(new IllegalStateException("redis down"));
+
+        assertEquals("one", cache.get(1, ids -> Map.of(1, "one")));
+    }
+}